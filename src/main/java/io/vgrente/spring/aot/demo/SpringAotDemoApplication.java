@@ -1,15 +1,29 @@
 package io.vgrente.spring.aot.demo;
 
-import io.vgrente.spring.aot.demo.config.JacksonRuntimeHints;
+import io.vgrente.spring.aot.demo.model.ProductDetail;
+import io.vgrente.spring.aot.demo.model.ProductName;
+import io.vgrente.spring.aot.demo.model.ProductPrice;
+import io.vgrente.spring.aot.demo.model.ProductSummary;
+import org.springframework.aot.hint.MemberCategory;
+import org.springframework.aot.hint.annotation.RegisterReflection;
 import org.springframework.boot.SpringApplication;
 import org.springframework.boot.autoconfigure.SpringBootApplication;
+import org.springframework.cache.annotation.EnableCaching;
 import org.springframework.context.annotation.Bean;
-import org.springframework.context.annotation.ImportRuntimeHints;
 import org.springframework.web.client.RestTemplate;
 
 @SpringBootApplication(scanBasePackages = {"io.vgrente.spring.aot.demo.controller", "io.vgrente.spring.aot.demo.config",
-		"io.vgrente.spring.aot.demo.repository", "io.vgrente.spring.aot.demo.error"})
-@ImportRuntimeHints(JacksonRuntimeHints.class)
+		"io.vgrente.spring.aot.demo.repository", "io.vgrente.spring.aot.demo.error",
+		"io.vgrente.spring.aot.demo.service", "io.vgrente.spring.aot.demo.json",
+		"io.vgrente.spring.aot.demo.jdbc", "io.vgrente.spring.aot.demo.jfr"})
+// JSON types need no hints: products and errors use ProductJsonModule, and
+// other request/response bodies are registered by Spring AOT. Only the JPQL
+// constructor expressions behind the projection records are invoked
+// reflectively.
+@RegisterReflection(
+		classes = {ProductName.class, ProductPrice.class, ProductSummary.class, ProductDetail.class},
+		memberCategories = MemberCategory.INVOKE_DECLARED_CONSTRUCTORS)
+@EnableCaching
 public class SpringAotDemoApplication {
 
 	public static void main(String[] args) {
@@ -0,0 +1,133 @@
+package io.vgrente.spring.aot.demo.config;
+
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.locks.ReentrantLock;
+
+/**
+ * Concurrency limit that adapts to latency with a gradient. Completed requests
+ * are averaged over short windows, and the window average is compared with a
+ * slow moving average of past windows. While latency stays near that baseline
+ * the limit grows by about its square root per window. Once queueing pushes
+ * latency beyond {@value #TOLERANCE} times the baseline, the limit shrinks in
+ * proportion, down to half per window. By Little's law, keeping latency near
+ * the baseline keeps concurrency near what the backend can actually serve.
+ * <p>
+ * Windows in which fewer than half the permits were used carry no signal about
+ * capacity and leave the limit unchanged, so the limit does not drift upwards
+ * while the service is idle.
+ */
+final class AdaptiveConcurrencyLimit {
+
+	private static final double TOLERANCE = 1.5;
+
+	// Weight of each new window in the limit and in the baseline average
+	private static final double SMOOTHING = 0.2;
+
+	private static final int BASELINE_WINDOWS = 600;
+
+	private static final int MIN_WINDOW_SAMPLES = 10;
+
+	private final int minLimit;
+
+	private final int maxLimit;
+
+	private final long windowNanos;
+
+	private final AtomicInteger inFlight = new AtomicInteger();
+
+	private final ReentrantLock lock = new ReentrantLock();
+
+	private volatile double limit;
+
+	// Guarded by lock
+	private long windowStart;
+
+	private long windowRttSum;
+
+	private int windowSamples;
+
+	private int windowMaxInFlight;
+
+	private double baselineRtt;
+
+	AdaptiveConcurrencyLimit(int initialLimit, int minLimit, int maxLimit, long windowMillis) {
+		this.limit = initialLimit;
+		this.minLimit = minLimit;
+		this.maxLimit = maxLimit;
+		this.windowNanos = TimeUnit.MILLISECONDS.toNanos(windowMillis);
+		this.windowStart = System.nanoTime();
+	}
+
+	int limit() {
+		return (int) limit;
+	}
+
+	int inFlight() {
+		return inFlight.get();
+	}
+
+	/**
+	 * Takes a permit unless the limit is reached. Never blocks.
+	 */
+	boolean tryAcquire() {
+		while (true) {
+			int current = inFlight.get();
+			if (current >= (int) limit) {
+				return false;
+			}
+			if (inFlight.compareAndSet(current, current + 1)) {
+				return true;
+			}
+		}
+	}
+
+	/**
+	 * Returns a permit taken {@code rttNanos} ago.
+	 */
+	void release(long rttNanos) {
+		int before = inFlight.getAndDecrement();
+		onSample(rttNanos, before, System.nanoTime());
+	}
+
+	void onSample(long rttNanos, int inFlightAtCompletion, long now) {
+		lock.lock();
+		try {
+			windowRttSum += rttNanos;
+			windowSamples++;
+			windowMaxInFlight = Math.max(windowMaxInFlight, inFlightAtCompletion);
+			if (now - windowStart < windowNanos || windowSamples < MIN_WINDOW_SAMPLES) {
+				return;
+			}
+
+			update((double) windowRttSum / windowSamples, windowMaxInFlight);
+			windowStart = now;
+			windowRttSum = 0;
+			windowSamples = 0;
+			windowMaxInFlight = 0;
+		} finally {
+			lock.unlock();
+		}
+	}
+
+	private void update(double rtt, int maxInFlight) {
+		if (baselineRtt == 0) {
+			baselineRtt = rtt;
+		} else {
+			baselineRtt += (rtt - baselineRtt) / BASELINE_WINDOWS;
+			// Let the baseline recover quickly once an overload is over
+			if (baselineRtt > 2 * rtt) {
+				baselineRtt = (baselineRtt + rtt) / 2;
+			}
+		}
+		if (maxInFlight < limit / 2) {
+			return;
+		}
+
+		double gradient = Math.max(0.5, Math.min(1.0, TOLERANCE * baselineRtt / rtt));
+		double target = limit * gradient + Math.sqrt(limit);
+		double smoothed = limit * (1 - SMOOTHING) + target * SMOOTHING;
+		limit = Math.max(minLimit, Math.min(maxLimit, smoothed));
+	}
+
+}
@@ -0,0 +1,58 @@
+package io.vgrente.spring.aot.demo.config;
+
+import java.io.IOException;
+import java.util.Map;
+
+import io.vgrente.spring.aot.demo.jfr.ResponseSerializationEvent;
+import tools.jackson.databind.JacksonModule;
+import tools.jackson.dataformat.cbor.CBORMapper;
+import tools.jackson.dataformat.smile.SmileMapper;
+
+import org.springframework.beans.factory.ObjectProvider;
+import org.springframework.boot.http.converter.autoconfigure.ServerHttpMessageConvertersCustomizer;
+import org.springframework.context.annotation.Bean;
+import org.springframework.context.annotation.Configuration;
+import org.springframework.core.ResolvableType;
+import org.springframework.http.HttpOutputMessage;
+import org.springframework.http.converter.cbor.JacksonCborHttpMessageConverter;
+import org.springframework.http.converter.smile.JacksonSmileHttpMessageConverter;
+
+/**
+ * CBOR ({@code application/cbor}) and Smile
+ * ({@code application/x-jackson-smile}) representations for clients that ask
+ * for them in {@code Accept}. Spring Boot builds the CBOR mapper; both carry
+ * the same {@code JacksonModule} beans as the JSON mapper, so products
+ * and errors go through the same reflection-free serializers. The converters
+ * fill the builder's CBOR and Smile slots, which rank after JSON, so requests
+ * without a specific {@code Accept} header still get JSON. Like the JSON
+ * converter, both emit a {@link ResponseSerializationEvent} per body.
+ */
+@Configuration(proxyBeanMethods = false)
+public class BinaryFormatsConfig {
+
+	@Bean
+	ServerHttpMessageConvertersCustomizer binaryFormatsConvertersCustomizer(CBORMapper cborMapper,
+			ObjectProvider<JacksonModule> modules) {
+		SmileMapper smileMapper = SmileMapper.builder().addModules(modules.orderedStream().toList()).build();
+		return builder -> builder.withCborConverter(new JacksonCborHttpMessageConverter(cborMapper) {
+
+			@Override
+			protected void writeInternal(Object object, ResolvableType resolvableType, HttpOutputMessage outputMessage,
+					Map<String, Object> hints) throws IOException {
+				ResponseSerializationEvent.time(object, "cbor",
+						() -> super.writeInternal(object, resolvableType, outputMessage, hints));
+			}
+
+		}).withSmileConverter(new JacksonSmileHttpMessageConverter(smileMapper) {
+
+			@Override
+			protected void writeInternal(Object object, ResolvableType resolvableType, HttpOutputMessage outputMessage,
+					Map<String, Object> hints) throws IOException {
+				ResponseSerializationEvent.time(object, "smile",
+						() -> super.writeInternal(object, resolvableType, outputMessage, hints));
+			}
+
+		});
+	}
+
+}
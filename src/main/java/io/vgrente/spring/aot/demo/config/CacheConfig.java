@@ -0,0 +1,40 @@
+package io.vgrente.spring.aot.demo.config;
+
+import java.util.concurrent.Executor;
+import java.util.concurrent.Executors;
+
+import com.github.benmanes.caffeine.cache.Caffeine;
+import io.vgrente.spring.aot.demo.jdbc.StatementProfiler;
+
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.cache.autoconfigure.CacheManagerCustomizer;
+import org.springframework.cache.caffeine.CaffeineCacheManager;
+import org.springframework.context.annotation.Bean;
+import org.springframework.context.annotation.Configuration;
+
+/**
+ * Runs the Caffeine caches in async mode. A synchronous {@code sync = true}
+ * load executes inside the cache's hash-bin lock, so a database lookup holds
+ * that lock while it waits for a pooled connection. Meanwhile a committing
+ * writer blocks in {@code evict} on the same bin while still holding its own
+ * connection. Under load those two waits close a cycle that only breaks on the
+ * pool timeout. In async mode the bin only holds a future. Loads run on virtual
+ * threads outside the lock, and eviction never waits for them. The loader
+ * carries the {@link StatementProfiler} scope of the request that triggered
+ * the load, so its statements are attributed to that request.
+ */
+@Configuration(proxyBeanMethods = false)
+public class CacheConfig {
+
+	@Bean
+	CacheManagerCustomizer<CaffeineCacheManager> asyncCaffeineCacheCustomizer(
+			@Value("${spring.cache.caffeine.spec}") String caffeineSpec, StatementProfiler profiler) {
+		Executor loader = profiler.propagating(
+				Executors.newThreadPerTaskExecutor(Thread.ofVirtual().name("cache-load-", 0).factory()));
+		return cacheManager -> {
+			cacheManager.setCaffeine(Caffeine.from(caffeineSpec).executor(loader));
+			cacheManager.setAsyncCacheMode(true);
+		};
+	}
+
+}
@@ -0,0 +1,135 @@
+package io.vgrente.spring.aot.demo.config;
+
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.Gauge;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.vgrente.spring.aot.demo.exception.ServiceUnavailableException;
+import jakarta.servlet.http.HttpServletRequest;
+import jakarta.servlet.http.HttpServletResponse;
+
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.context.annotation.Bean;
+import org.springframework.context.annotation.Configuration;
+import org.springframework.http.HttpMethod;
+import org.springframework.web.servlet.HandlerInterceptor;
+import org.springframework.web.servlet.config.annotation.InterceptorRegistry;
+import org.springframework.web.servlet.config.annotation.WebMvcConfigurer;
+
+/**
+ * Adaptive concurrency limits in front of the products API, one for reads and
+ * one for writes, so a write backlog cannot starve reads and vice versa.
+ * Requests beyond the current limit are rejected immediately with a 503 and
+ * {@code Retry-After} instead of queueing in Tomcat, so latency stays bounded
+ * when the database slows down. The change feed and the export are long-lived
+ * streams and are not limited.
+ * <p>
+ * On platform threads, a limit above Tomcat's worker count
+ * ({@code server.tomcat.threads.max}) could never be reached: requests would
+ * queue for a thread before the limit saw them. Both maximums are therefore
+ * capped at that count. With {@code spring.threads.virtual.enabled} there is
+ * no such pool and the configured maximums apply.
+ * <p>
+ * Each limit is exported as {@code products.concurrency.limit}, with
+ * {@code products.concurrency.in-flight} and the
+ * {@code products.concurrency.rejected} counter, all tagged with
+ * {@code kind=read|write}.
+ */
+@Configuration(proxyBeanMethods = false)
+public class ConcurrencyLimitConfig {
+
+	@Bean
+	WebMvcConfigurer productConcurrencyLimits(MeterRegistry meterRegistry,
+			@Value("${app.products.concurrency.enabled:true}") boolean enabled,
+			@Value("${app.products.concurrency.min-limit:4}") int minLimit,
+			@Value("${app.products.concurrency.window-ms:100}") long windowMillis,
+			@Value("${app.products.concurrency.read.initial-limit:100}") int readInitialLimit,
+			@Value("${app.products.concurrency.read.max-limit:1000}") int readMaxLimit,
+			@Value("${app.products.concurrency.write.initial-limit:20}") int writeInitialLimit,
+			@Value("${app.products.concurrency.write.max-limit:200}") int writeMaxLimit,
+			@Value("${server.tomcat.threads.max:200}") int serverThreads,
+			@Value("${spring.threads.virtual.enabled:false}") boolean virtualThreads) {
+		if (!enabled) {
+			return new WebMvcConfigurer() {
+			};
+		}
+
+		if (!virtualThreads) {
+			readMaxLimit = Math.min(readMaxLimit, serverThreads);
+			writeMaxLimit = Math.min(writeMaxLimit, serverThreads);
+			readInitialLimit = Math.min(readInitialLimit, readMaxLimit);
+			writeInitialLimit = Math.min(writeInitialLimit, writeMaxLimit);
+		}
+
+		ConcurrencyLimitInterceptor interceptor = new ConcurrencyLimitInterceptor(
+				new LimitedKind("read", new AdaptiveConcurrencyLimit(readInitialLimit, minLimit, readMaxLimit,
+						windowMillis), meterRegistry),
+				new LimitedKind("write", new AdaptiveConcurrencyLimit(writeInitialLimit, minLimit, writeMaxLimit,
+						windowMillis), meterRegistry));
+		return new WebMvcConfigurer() {
+
+			@Override
+			public void addInterceptors(InterceptorRegistry registry) {
+				registry.addInterceptor(interceptor).addPathPatterns("/api/products", "/api/products/**")
+						.excludePathPatterns("/api/products/changes", "/api/products/export");
+			}
+
+		};
+	}
+
+	private record LimitedKind(String name, AdaptiveConcurrencyLimit limit, Counter rejected) {
+
+		LimitedKind(String name, AdaptiveConcurrencyLimit limit, MeterRegistry meterRegistry) {
+			this(name, limit, Counter.builder("products.concurrency.rejected")
+					.description("Product requests rejected by the concurrency limit").tag("kind", name)
+					.register(meterRegistry));
+			Gauge.builder("products.concurrency.limit", limit, AdaptiveConcurrencyLimit::limit)
+					.description("Current adaptive concurrency limit").tag("kind", name).register(meterRegistry);
+			Gauge.builder("products.concurrency.in-flight", limit, AdaptiveConcurrencyLimit::inFlight)
+					.description("Product requests holding a concurrency permit").tag("kind", name)
+					.register(meterRegistry);
+		}
+
+	}
+
+	private static final class ConcurrencyLimitInterceptor implements HandlerInterceptor {
+
+		private static final String START_ATTRIBUTE = ConcurrencyLimitInterceptor.class.getName() + ".start";
+
+		private final LimitedKind reads;
+
+		private final LimitedKind writes;
+
+		ConcurrencyLimitInterceptor(LimitedKind reads, LimitedKind writes) {
+			this.reads = reads;
+			this.writes = writes;
+		}
+
+		@Override
+		public boolean preHandle(HttpServletRequest request, HttpServletResponse response, Object handler) {
+			LimitedKind kind = kindOf(request);
+			if (!kind.limit().tryAcquire()) {
+				kind.rejected().increment();
+				throw new ServiceUnavailableException(
+						String.format("Too many concurrent product %ss (limit %d)", kind.name(), kind.limit().limit()));
+			}
+			request.setAttribute(START_ATTRIBUTE, System.nanoTime());
+			return true;
+		}
+
+		@Override
+		public void afterCompletion(HttpServletRequest request, HttpServletResponse response, Object handler,
+				Exception ex) {
+			if (request.getAttribute(START_ATTRIBUTE) instanceof Long start) {
+				request.removeAttribute(START_ATTRIBUTE);
+				kindOf(request).limit().release(System.nanoTime() - start);
+			}
+		}
+
+		private LimitedKind kindOf(HttpServletRequest request) {
+			String method = request.getMethod();
+			return HttpMethod.GET.matches(method) || HttpMethod.HEAD.matches(method) ? reads : writes;
+		}
+
+	}
+
+}
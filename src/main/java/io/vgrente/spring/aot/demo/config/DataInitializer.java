@@ -1,9 +1,16 @@
 package io.vgrente.spring.aot.demo.config;
 
+import java.util.List;
+
+import javax.sql.DataSource;
+
 import io.vgrente.spring.aot.demo.model.Product;
 import io.vgrente.spring.aot.demo.repository.ProductRepository;
+import jakarta.persistence.EntityManagerFactory;
+import org.hibernate.SessionFactory;
 import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Value;
 import org.springframework.boot.CommandLineRunner;
 import org.springframework.stereotype.Component;
 
@@ -12,18 +19,41 @@ public class DataInitializer implements CommandLineRunner {
 
 	private static final Logger log = LoggerFactory.getLogger(DataInitializer.class);
 	private final ProductRepository productRepository;
+	private final DataSource dataSource;
+	private final EntityManagerFactory entityManagerFactory;
+	private final long seedCount;
+	private final long seedRandomSeed;
+	private final int seedThreads;
+	private final int seedBatchSize;
 
-	public DataInitializer(ProductRepository productRepository) {
+	public DataInitializer(ProductRepository productRepository, DataSource dataSource,
+			EntityManagerFactory entityManagerFactory,
+			@Value("${app.seed.count:0}") long seedCount, @Value("${app.seed.random-seed:42}") long seedRandomSeed,
+			@Value("${app.seed.threads:4}") int seedThreads, @Value("${app.seed.batch-size:1000}") int seedBatchSize) {
 		this.productRepository = productRepository;
+		this.dataSource = dataSource;
+		this.entityManagerFactory = entityManagerFactory;
+		this.seedCount = seedCount;
+		this.seedRandomSeed = seedRandomSeed;
+		this.seedThreads = seedThreads;
+		this.seedBatchSize = seedBatchSize;
 	}
 
 	@Override
 	public void run(String... args) {
-		productRepository.save(new Product("Laptop", 999.99, "High performance laptop"));
-		productRepository.save(new Product("Mouse", 29.99, "Wireless mouse"));
-		productRepository.save(new Product("Keyboard", 79.99, "Mechanical keyboard"));
-		productRepository.save(new Product("Monitor", 299.99, "27 inch 4K monitor"));
-		productRepository.save(new Product("Headphones", 149.99, "Noise cancelling headphones"));
+		productRepository.saveAll(List.of(new Product("Laptop", 999.99, "High performance laptop"),
+				new Product("Mouse", 29.99, "Wireless mouse"), new Product("Keyboard", 79.99, "Mechanical keyboard"),
+				new Product("Monitor", 299.99, "27 inch 4K monitor"),
+				new Product("Headphones", 149.99, "Noise cancelling headphones")));
+
+		// Runs after the sample rows so that Hibernate has already taken its
+		// first id block and seeded blocks cannot collide with it
+		if (seedCount > 0) {
+			new ProductSeeder(dataSource, seedRandomSeed, seedThreads, seedBatchSize).seed(seedCount);
+			// Plain JDBC bypasses Hibernate, so cached query results would miss the
+			// seeded rows
+			entityManagerFactory.unwrap(SessionFactory.class).getCache().evictAllRegions();
+		}
 
 		log.info("Sample data initialized: {} products", productRepository.count());
 	}
@@ -0,0 +1,194 @@
+package io.vgrente.spring.aot.demo.config;
+
+import java.sql.Connection;
+import java.sql.PreparedStatement;
+import java.sql.ResultSet;
+import java.sql.SQLException;
+import java.sql.Statement;
+import java.sql.Types;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Random;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.atomic.AtomicLong;
+
+import javax.sql.DataSource;
+
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+/**
+ * Bulk-loads synthetic products with plain JDBC batches on several connections
+ * in parallel. Rows are generated in fixed-size chunks, each from its own
+ * {@link Random} derived from the configured seed. The data set is therefore
+ * identical across runs, whatever the thread count or scheduling.
+ * <p>
+ * Ids are reserved from {@code product_seq} one allocation block at a time.
+ * The blocks follow the pooled optimizer's contract, so they never overlap
+ * with ids Hibernate hands out later. The sequence call is H2 syntax, as is
+ * the rest of the application's setup.
+ */
+class ProductSeeder {
+
+	private static final Logger log = LoggerFactory.getLogger(ProductSeeder.class);
+
+	// Must match the allocationSize of the product_seq generator on Product
+	private static final int ID_BLOCK_SIZE = 50;
+
+	private static final int CHUNK_SIZE = 10_000;
+
+	private static final String INSERT_SQL = "INSERT INTO products (id, name, price, description, version) VALUES (?, ?, ?, ?, 0)";
+
+	private static final String NEXT_ID_BLOCK_SQL = "SELECT NEXT VALUE FOR product_seq";
+
+	private static final String[] ADJECTIVES = {"wireless", "gaming", "pro", "ultra", "compact", "mechanical",
+			"curved", "portable", "ergonomic", "silent", "smart", "rugged"};
+
+	private static final String[] NOUNS = {"laptop", "mouse", "keyboard", "monitor", "headphones", "speaker",
+			"webcam", "charger", "docking station", "microphone", "tablet", "router"};
+
+	private static final String[] DESCRIPTION_WORDS = {"high", "performance", "with", "long", "battery", "life",
+			"and", "fast", "charging", "for", "office", "home", "travel", "premium", "build", "quality", "includes",
+			"cable", "warranty", "low", "latency", "noise", "cancelling", "4K", "display", "USB-C", "support"};
+
+	// Default VARCHAR length of the name and description columns
+	private static final int MAX_TEXT_LENGTH = 255;
+
+	private final DataSource dataSource;
+
+	private final long randomSeed;
+
+	private final int threads;
+
+	private final int batchSize;
+
+	ProductSeeder(DataSource dataSource, long randomSeed, int threads, int batchSize) {
+		this.dataSource = dataSource;
+		this.randomSeed = randomSeed;
+		this.threads = threads;
+		this.batchSize = batchSize;
+	}
+
+	void seed(long count) {
+		long chunks = (count + CHUNK_SIZE - 1) / CHUNK_SIZE;
+		AtomicLong nextChunk = new AtomicLong();
+		long start = System.nanoTime();
+
+		try (ExecutorService executor = Executors.newFixedThreadPool(threads)) {
+			List<Future<?>> workers = new ArrayList<>(threads);
+			for (int i = 0; i < threads; i++) {
+				workers.add(executor.submit(() -> {
+					try (Connection connection = dataSource.getConnection()) {
+						connection.setAutoCommit(false);
+						for (long chunk = nextChunk.getAndIncrement(); chunk < chunks; chunk = nextChunk
+								.getAndIncrement()) {
+							int rows = (int) Math.min(CHUNK_SIZE, count - chunk * CHUNK_SIZE);
+							insertChunk(connection, new Random(randomSeed + chunk), rows);
+						}
+					}
+					return null;
+				}));
+			}
+			for (Future<?> worker : workers) {
+				worker.get();
+			}
+		} catch (ExecutionException ex) {
+			throw new IllegalStateException("Product seeding failed", ex.getCause());
+		} catch (InterruptedException ex) {
+			Thread.currentThread().interrupt();
+			throw new IllegalStateException("Product seeding interrupted", ex);
+		}
+
+		double seconds = (System.nanoTime() - start) / 1e9;
+		log.info("Seeded {} products in {} s ({} rows/s) using {} threads", count, String.format("%.1f", seconds),
+				Math.round(count / seconds), threads);
+	}
+
+	private void insertChunk(Connection connection, Random random, int rows) throws SQLException {
+		try (PreparedStatement insert = connection.prepareStatement(INSERT_SQL);
+				Statement sequence = connection.createStatement()) {
+			long nextId = 0;
+			long lastId = -1;
+			for (int row = 0; row < rows; row++) {
+				if (nextId > lastId) {
+					lastId = nextIdBlock(sequence);
+					nextId = lastId - ID_BLOCK_SIZE + 1;
+				}
+				insert.setLong(1, nextId++);
+				insert.setString(2, name(random));
+				insert.setDouble(3, price(random));
+				String description = description(random);
+				if (description != null) {
+					insert.setString(4, description);
+				} else {
+					insert.setNull(4, Types.VARCHAR);
+				}
+				insert.addBatch();
+				if ((row + 1) % batchSize == 0) {
+					insert.executeBatch();
+				}
+			}
+			insert.executeBatch();
+			connection.commit();
+		} catch (SQLException ex) {
+			connection.rollback();
+			throw ex;
+		}
+	}
+
+	private static long nextIdBlock(Statement sequence) throws SQLException {
+		try (ResultSet rs = sequence.executeQuery(NEXT_ID_BLOCK_SQL)) {
+			rs.next();
+			return rs.getLong(1);
+		}
+	}
+
+	/**
+	 * One to three adjectives (mostly one) before a noun, plus a model number.
+	 */
+	static String name(Random random) {
+		StringBuilder name = new StringBuilder();
+		int adjectives = random.nextDouble() < 0.6 ? 1 : random.nextDouble() < 0.8 ? 2 : 3;
+		for (int i = 0; i < adjectives; i++) {
+			name.append(capitalize(ADJECTIVES[random.nextInt(ADJECTIVES.length)])).append(' ');
+		}
+		return name.append(capitalize(NOUNS[random.nextInt(NOUNS.length)])).append(' ')
+				.append(random.nextInt(10_000)).toString();
+	}
+
+	/**
+	 * Log-normal prices with a median around 80, rounded to cents.
+	 */
+	static double price(Random random) {
+		double price = Math.exp(4.4 + random.nextGaussian());
+		return Math.min(Math.round(price * 100) / 100.0, 100_000);
+	}
+
+	/**
+	 * Absent for one product in ten. Otherwise its length is log-normal, with a
+	 * median of about 60 characters, capped at the column length.
+	 */
+	static String description(Random random) {
+		if (random.nextInt(10) == 0) {
+			return null;
+		}
+		int length = (int) Math.min(Math.exp(4.1 + 0.6 * random.nextGaussian()), MAX_TEXT_LENGTH);
+		StringBuilder description = new StringBuilder(length + 16);
+		while (description.length() < length) {
+			if (!description.isEmpty()) {
+				description.append(' ');
+			}
+			description.append(DESCRIPTION_WORDS[random.nextInt(DESCRIPTION_WORDS.length)]);
+		}
+		description.setLength(Math.min(description.length(), MAX_TEXT_LENGTH));
+		return capitalize(description.toString());
+	}
+
+	private static String capitalize(String word) {
+		return Character.toUpperCase(word.charAt(0)) + word.substring(1);
+	}
+
+}
@@ -0,0 +1,37 @@
+package io.vgrente.spring.aot.demo.config;
+
+import org.springframework.aot.hint.MemberCategory;
+import org.springframework.aot.hint.RuntimeHints;
+import org.springframework.aot.hint.RuntimeHintsRegistrar;
+import org.springframework.aot.hint.TypeReference;
+import org.springframework.context.annotation.Configuration;
+import org.springframework.context.annotation.ImportRuntimeHints;
+
+/**
+ * Native image hints for the Hibernate second-level cache. Hibernate resolves
+ * the {@code jcache} region factory by name and instantiates it reflectively,
+ * the JCache API looks the Caffeine provider up by class name, and Caffeine
+ * reads its region configuration from {@code application.conf} (on top of the
+ * {@code reference.conf} files of Caffeine and Typesafe Config). The provider
+ * and region settings themselves live in {@code application.properties}.
+ */
+@Configuration(proxyBeanMethods = false)
+@ImportRuntimeHints(SecondLevelCacheConfig.JCacheRuntimeHints.class)
+public class SecondLevelCacheConfig {
+
+	static class JCacheRuntimeHints implements RuntimeHintsRegistrar {
+
+		@Override
+		public void registerHints(RuntimeHints hints, ClassLoader classLoader) {
+			hints.reflection().registerType(TypeReference.of("org.hibernate.cache.jcache.internal.JCacheRegionFactory"),
+					MemberCategory.INVOKE_PUBLIC_CONSTRUCTORS);
+			hints.reflection().registerType(
+					TypeReference.of("com.github.benmanes.caffeine.jcache.spi.CaffeineCachingProvider"),
+					MemberCategory.INVOKE_PUBLIC_CONSTRUCTORS);
+			hints.resources().registerPattern("application.conf").registerPattern("reference.conf")
+					.registerPattern("META-INF/services/javax.cache.spi.CachingProvider");
+		}
+
+	}
+
+}
@@ -1,84 +1,356 @@
 package io.vgrente.spring.aot.demo.controller;
 
 import java.util.List;
+import java.util.Set;
+import java.util.function.BiFunction;
+import java.util.function.Function;
 
 import io.vgrente.spring.aot.demo.exception.BadRequestException;
 import io.vgrente.spring.aot.demo.exception.ResourceNotFoundException;
+import io.vgrente.spring.aot.demo.json.ProductJsonCache;
 import io.vgrente.spring.aot.demo.model.Product;
+import io.vgrente.spring.aot.demo.model.ProductBatchRequest;
+import io.vgrente.spring.aot.demo.model.ProductBatchResponse;
+import io.vgrente.spring.aot.demo.model.ProductDetail;
+import io.vgrente.spring.aot.demo.model.ProductField;
+import io.vgrente.spring.aot.demo.model.ProductPatch;
+import io.vgrente.spring.aot.demo.model.ProductStats;
+import io.vgrente.spring.aot.demo.model.ProductSummary;
+import io.vgrente.spring.aot.demo.model.ProductView;
 import io.vgrente.spring.aot.demo.repository.ProductRepository;
+import io.vgrente.spring.aot.demo.service.ProductBatchService;
+import io.vgrente.spring.aot.demo.service.ProductCatalogStats;
+import io.vgrente.spring.aot.demo.service.ProductChangeFeed;
+import io.vgrente.spring.aot.demo.service.ProductExporter;
+import io.vgrente.spring.aot.demo.service.ProductQueryService;
+import io.vgrente.spring.aot.demo.service.ProductWriteBehind;
+import io.vgrente.spring.aot.demo.service.ProductWriteService;
 import jakarta.validation.Valid;
 
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.data.domain.Limit;
+import org.springframework.http.HttpHeaders;
 import org.springframework.http.HttpStatus;
+import org.springframework.http.MediaType;
 import org.springframework.http.ResponseEntity;
 import org.springframework.web.bind.annotation.DeleteMapping;
 import org.springframework.web.bind.annotation.GetMapping;
+import org.springframework.web.bind.annotation.PatchMapping;
 import org.springframework.web.bind.annotation.PathVariable;
 import org.springframework.web.bind.annotation.PostMapping;
 import org.springframework.web.bind.annotation.PutMapping;
 import org.springframework.web.bind.annotation.RequestBody;
+import org.springframework.web.bind.annotation.RequestHeader;
 import org.springframework.web.bind.annotation.RequestMapping;
 import org.springframework.web.bind.annotation.RequestParam;
 import org.springframework.web.bind.annotation.RestController;
+import org.springframework.web.servlet.mvc.method.annotation.SseEmitter;
+import org.springframework.web.servlet.mvc.method.annotation.StreamingResponseBody;
 
 @RestController
 @RequestMapping("/api/products")
 public class ProductController {
 
+	static final String NEXT_CURSOR_HEADER = "X-Next-Cursor";
+
 	private final ProductRepository productRepository;
 
-	public ProductController(ProductRepository productRepository) {
+	private final ProductQueryService productQueryService;
+
+	private final ProductExporter productExporter;
+
+	private final ProductBatchService productBatchService;
+
+	private final ProductWriteService productWriteService;
+
+	private final ProductChangeFeed productChangeFeed;
+
+	private final ProductWriteBehind productWriteBehind;
+
+	private final ProductJsonCache productJsonCache;
+
+	private final ProductCatalogStats productCatalogStats;
+
+	private final int defaultPageSize;
+
+	private final int maxPageSize;
+
+	private final int maxBatchSize;
+
+	public ProductController(ProductRepository productRepository, ProductQueryService productQueryService,
+			ProductExporter productExporter, ProductBatchService productBatchService,
+			ProductWriteService productWriteService, ProductChangeFeed productChangeFeed,
+			ProductWriteBehind productWriteBehind, ProductJsonCache productJsonCache,
+			ProductCatalogStats productCatalogStats,
+			@Value("${app.products.page.default-size:20}") int defaultPageSize,
+			@Value("${app.products.page.max-size:100}") int maxPageSize,
+			@Value("${app.products.batch.max-size:10000}") int maxBatchSize) {
 		this.productRepository = productRepository;
+		this.productQueryService = productQueryService;
+		this.productExporter = productExporter;
+		this.productBatchService = productBatchService;
+		this.productWriteService = productWriteService;
+		this.productChangeFeed = productChangeFeed;
+		this.productWriteBehind = productWriteBehind;
+		this.productJsonCache = productJsonCache;
+		this.productCatalogStats = productCatalogStats;
+		this.defaultPageSize = defaultPageSize;
+		this.maxPageSize = maxPageSize;
+		this.maxBatchSize = maxBatchSize;
 	}
 
 	@GetMapping
-	public List<Product> getAllProducts() {
-		return productRepository.findAll();
+	public ResponseEntity<?> getAllProducts(@RequestParam(required = false) String after,
+			@RequestParam(required = false) Integer limit, @RequestParam(required = false) Double minPrice,
+			@RequestParam(required = false) Double maxPrice, @RequestParam(required = false) String sort,
+			@RequestParam(required = false) String fields,
+			@RequestHeader(value = HttpHeaders.ACCEPT, required = false) String accept) {
+		int pageSize = resolvePageSize(limit);
+		String format = ProductETags.formatOf(accept);
+		boolean byPrice = resolveSortByPrice(sort);
+		Set<ProductField> selected = ProductFields.parse(fields);
+		double min = minPrice != null ? minPrice : -Double.MAX_VALUE;
+		double max = maxPrice != null ? maxPrice : Double.MAX_VALUE;
+		if (min > max) {
+			throw new BadRequestException("Parameter 'minPrice' must not be greater than 'maxPrice'");
+		}
+
+		ProductCursor cursor = after != null ? ProductCursor.decode(after) : null;
+		if (cursor != null && byPrice != (cursor.price() != null)) {
+			throw new BadRequestException("Pagination cursor does not match the requested sort order");
+		}
+
+		// Fetch one extra row to know whether a next page exists
+		Limit fetchLimit = Limit.of(pageSize + 1);
+		if (selected != null) {
+			List<ProductView> views = ProductFields.summaryOnly(selected)
+					? findSummaries(min, max, byPrice, cursor, fetchLimit).stream()
+							.map(summary -> ProductView.of(summary, selected)).toList()
+					: findDetails(min, max, byPrice, cursor, fetchLimit).stream()
+							.map(detail -> ProductView.of(detail, selected)).toList();
+			return page(views, pageSize, view -> ProductCursor.after(view, byPrice),
+					(rows, nextCursor) -> ProductETags.ofViews(rows, nextCursor, format));
+		}
+
+		List<Product> products;
+		if (byPrice) {
+			products = cursor == null
+					? productRepository.findByPriceRangeOrderByPrice(min, max, fetchLimit)
+					: productRepository.findByPriceRangeOrderByPriceAfter(min, max, cursor.price(), cursor.id(),
+							fetchLimit);
+		} else {
+			products = cursor == null
+					? productRepository.findByPriceBetweenOrderByIdAsc(min, max, fetchLimit)
+					: productRepository.findByPriceBetweenAndIdGreaterThanOrderByIdAsc(min, max, cursor.id(),
+							fetchLimit);
+		}
+		return page(products, pageSize, product -> ProductCursor.after(product, byPrice),
+				(rows, nextCursor) -> ProductETags.of(rows, nextCursor, format));
+	}
+
+	private List<ProductSummary> findSummaries(double min, double max, boolean byPrice, ProductCursor cursor,
+			Limit fetchLimit) {
+		if (byPrice) {
+			return cursor == null
+					? productRepository.findSummariesByPriceRangeOrderByPrice(min, max, fetchLimit)
+					: productRepository.findSummariesByPriceRangeOrderByPriceAfter(min, max, cursor.price(),
+							cursor.id(), fetchLimit);
+		}
+		return cursor == null
+				? productRepository.findSummariesByPriceBetweenOrderByIdAsc(min, max, fetchLimit)
+				: productRepository.findSummariesByPriceBetweenAndIdGreaterThanOrderByIdAsc(min, max, cursor.id(),
+						fetchLimit);
+	}
+
+	private List<ProductDetail> findDetails(double min, double max, boolean byPrice, ProductCursor cursor,
+			Limit fetchLimit) {
+		if (byPrice) {
+			return cursor == null
+					? productRepository.findDetailsByPriceRangeOrderByPrice(min, max, fetchLimit)
+					: productRepository.findDetailsByPriceRangeOrderByPriceAfter(min, max, cursor.price(),
+							cursor.id(), fetchLimit);
+		}
+		return cursor == null
+				? productRepository.findDetailsByPriceBetweenOrderByIdAsc(min, max, fetchLimit)
+				: productRepository.findDetailsByPriceBetweenAndIdGreaterThanOrderByIdAsc(min, max, cursor.id(),
+						fetchLimit);
+	}
+
+	private static <T> ResponseEntity<List<T>> page(List<T> rows, int pageSize, Function<T, ProductCursor> cursorOf,
+			BiFunction<List<T>, String, String> eTagOf) {
+		if (rows.size() <= pageSize) {
+			return ResponseEntity.ok().eTag(eTagOf.apply(rows, null)).varyBy(HttpHeaders.ACCEPT).body(rows);
+		}
+
+		// The ETag is set on the response entity, so a matching If-None-Match
+		// short-circuits to 304 before the body is serialized
+		List<T> page = rows.subList(0, pageSize);
+		String nextCursor = cursorOf.apply(page.getLast()).encode();
+		return ResponseEntity.ok().eTag(eTagOf.apply(page, nextCursor)).varyBy(HttpHeaders.ACCEPT)
+				.header(NEXT_CURSOR_HEADER, nextCursor).body(page);
+	}
+
+	// Streamed on the shared applicationTaskExecutor, with no async request
+	// timeout (spring.mvc.async.request-timeout) so a large export completes
+	@GetMapping(value = "/export", produces = MediaType.APPLICATION_NDJSON_VALUE)
+	public ResponseEntity<StreamingResponseBody> exportProducts() {
+		StreamingResponseBody body = productExporter::export;
+		return ResponseEntity.ok().contentType(MediaType.APPLICATION_NDJSON).body(body);
+	}
+
+	// Served from in-memory aggregates, so the cost does not grow with the catalog
+	@GetMapping("/stats")
+	public ProductStats getStats() {
+		return productCatalogStats.snapshot();
+	}
+
+	// Malformed ids are treated like expired ones: the feed answers with a reset
+	@GetMapping(value = "/changes", produces = MediaType.TEXT_EVENT_STREAM_VALUE)
+	public SseEmitter streamChanges(@RequestHeader(value = "Last-Event-ID", required = false) String lastEventId) {
+		Long after = null;
+		if (lastEventId != null) {
+			try {
+				after = Long.parseLong(lastEventId.strip());
+			} catch (NumberFormatException ex) {
+				after = -1L;
+			}
+		}
+		return productChangeFeed.subscribe(after);
 	}
 
 	@GetMapping("/{id}")
-	public Product getProductById(@PathVariable Long id) {
-		return productRepository.findById(id).orElseThrow(() -> new ResourceNotFoundException("Product", id));
+	public ResponseEntity<?> getProductById(@PathVariable Long id, @RequestParam(required = false) String fields,
+			@RequestHeader(value = HttpHeaders.ACCEPT, required = false) String accept) {
+		Set<ProductField> selected = ProductFields.parse(fields);
+		String format = ProductETags.formatOf(accept);
+		if (selected != null) {
+			ProductView view = (ProductFields.summaryOnly(selected)
+					? productQueryService.findSummaryById(id).map(summary -> ProductView.of(summary, selected))
+					: productQueryService.findDetailById(id).map(detail -> ProductView.of(detail, selected)))
+					.orElseThrow(() -> new ResourceNotFoundException("Product", id));
+			return ResponseEntity.ok().eTag(ProductETags.of(view, format)).varyBy(HttpHeaders.ACCEPT).body(view);
+		}
+
+		Product product = productQueryService.findById(id)
+				.orElseThrow(() -> new ResourceNotFoundException("Product", id));
+		// Cached bodies are JSON, so they are only used when content negotiation
+		// would pick JSON
+		if (ProductETags.JSON.equals(format)) {
+			return ResponseEntity.ok().eTag(ProductETags.of(product, format)).varyBy(HttpHeaders.ACCEPT)
+					.contentType(MediaType.APPLICATION_JSON).body(productJsonCache.encode(product));
+		}
+		return ResponseEntity.ok().eTag(ProductETags.of(product, format)).varyBy(HttpHeaders.ACCEPT).body(product);
 	}
 
 	@PostMapping
-	public ResponseEntity<Product> createProduct(@Valid @RequestBody Product product) {
+	public ResponseEntity<Product> createProduct(@Valid @RequestBody Product product,
+			@RequestHeader(value = HttpHeaders.ACCEPT, required = false) String accept) {
 		if (product.getId() != null) {
 			throw new BadRequestException("Product ID must not be provided when creating a new product");
 		}
 
-		Product savedProduct = productRepository.save(product);
-		return ResponseEntity.status(HttpStatus.CREATED).body(savedProduct);
+		Product savedProduct = productWriteBehind.isEnabled() ? productWriteBehind.create(product)
+				: productRepository.save(product);
+		return ResponseEntity.status(HttpStatus.CREATED)
+				.eTag(ProductETags.of(savedProduct, ProductETags.formatOf(accept))).varyBy(HttpHeaders.ACCEPT)
+				.body(savedProduct);
+	}
+
+	@PostMapping("/batch")
+	public ProductBatchResponse batchProducts(@RequestBody ProductBatchRequest request) {
+		if (request.size() > maxBatchSize) {
+			throw new BadRequestException(
+					String.format("Batch contains %d items, maximum is %d", request.size(), maxBatchSize));
+		}
+
+		productWriteBehind.awaitFlushed();
+		return productBatchService.apply(request);
 	}
 
 	@PutMapping("/{id}")
-	public Product updateProduct(@PathVariable Long id, @Valid @RequestBody Product product) {
-		Product existingProduct = productRepository.findById(id)
-				.orElseThrow(() -> new ResourceNotFoundException("Product", id));
+	public ResponseEntity<Product> updateProduct(@PathVariable Long id, @Valid @RequestBody Product product,
+			@RequestHeader(value = HttpHeaders.IF_MATCH, required = false) String ifMatch,
+			@RequestHeader(value = HttpHeaders.ACCEPT, required = false) String accept) {
+		Set<Long> expectedVersions = ProductETags.matchingVersions(ifMatch);
+		// Write-behind acknowledges before the new version exists, so there is no ETag
+		if (expectedVersions == null && productWriteBehind.isEnabled()) {
+			return ResponseEntity.accepted().body(productWriteBehind.replace(id, product));
+		}
 
-		existingProduct.setName(product.getName());
-		existingProduct.setPrice(product.getPrice());
-		existingProduct.setDescription(product.getDescription());
+		productWriteBehind.awaitFlushed();
+		Product savedProduct = productWriteService.replace(id, product, expectedVersions);
+		return ResponseEntity.ok().eTag(ProductETags.of(savedProduct, ProductETags.formatOf(accept)))
+				.varyBy(HttpHeaders.ACCEPT).body(savedProduct);
+	}
 
-		return productRepository.save(existingProduct);
+	@PatchMapping("/{id}")
+	public ResponseEntity<Product> patchProduct(@PathVariable Long id, @Valid @RequestBody ProductPatch patch,
+			@RequestHeader(value = HttpHeaders.IF_MATCH, required = false) String ifMatch,
+			@RequestHeader(value = HttpHeaders.ACCEPT, required = false) String accept) {
+		productWriteBehind.awaitFlushed();
+		Product savedProduct = productWriteService.patch(id, patch, ProductETags.matchingVersions(ifMatch));
+		return ResponseEntity.ok().eTag(ProductETags.of(savedProduct, ProductETags.formatOf(accept)))
+				.varyBy(HttpHeaders.ACCEPT).body(savedProduct);
 	}
 
 	@DeleteMapping("/{id}")
-	public ResponseEntity<Void> deleteProduct(@PathVariable Long id) {
-		if (!productRepository.existsById(id)) {
-			throw new ResourceNotFoundException("Product", id);
+	public ResponseEntity<Void> deleteProduct(@PathVariable Long id,
+			@RequestHeader(value = HttpHeaders.IF_MATCH, required = false) String ifMatch) {
+		Set<Long> expectedVersions = ProductETags.matchingVersions(ifMatch);
+		if (expectedVersions == null && productWriteBehind.isEnabled()) {
+			productWriteBehind.delete(id);
+			return ResponseEntity.accepted().build();
 		}
 
-		productRepository.deleteById(id);
+		productWriteBehind.awaitFlushed();
+		productWriteService.delete(id, expectedVersions);
 		return ResponseEntity.noContent().build();
 	}
 
 	@GetMapping("/search")
-	public List<Product> searchProducts(@RequestParam String name) {
+	public ResponseEntity<?> searchProducts(@RequestParam String name, @RequestParam(required = false) Integer limit,
+			@RequestParam(required = false) String fields,
+			@RequestHeader(value = HttpHeaders.ACCEPT, required = false) String accept) {
 		if (name == null || name.isBlank()) {
 			throw new BadRequestException("Search parameter 'name' must not be empty");
 		}
 
-		return productRepository.findByNameContainingIgnoreCase(name);
+		Set<ProductField> selected = ProductFields.parse(fields);
+		int pageSize = resolvePageSize(limit);
+		String format = ProductETags.formatOf(accept);
+		if (selected != null) {
+			List<ProductView> views = ProductFields.summaryOnly(selected)
+					? productQueryService.searchSummariesByName(name, pageSize).stream()
+							.map(summary -> ProductView.of(summary, selected)).toList()
+					: productQueryService.searchDetailsByName(name, pageSize).stream()
+							.map(detail -> ProductView.of(detail, selected)).toList();
+			return ResponseEntity.ok().eTag(ProductETags.ofViews(views, null, format)).varyBy(HttpHeaders.ACCEPT)
+					.body(views);
+		}
+
+		List<Product> products = productQueryService.searchByName(name, pageSize);
+		return ResponseEntity.ok().eTag(ProductETags.of(products, null, format)).varyBy(HttpHeaders.ACCEPT)
+				.body(products);
+	}
+
+	private boolean resolveSortByPrice(String sort) {
+		if (sort == null || sort.equals("id")) {
+			return false;
+		}
+		if (sort.equals("price")) {
+			return true;
+		}
+		throw new BadRequestException("Parameter 'sort' must be one of: id, price");
+	}
+
+	private int resolvePageSize(Integer limit) {
+		if (limit == null) {
+			return defaultPageSize;
+		}
+		if (limit < 1) {
+			throw new BadRequestException("Parameter 'limit' must be greater than 0");
+		}
+		return Math.min(limit, maxPageSize);
 	}
 
 }
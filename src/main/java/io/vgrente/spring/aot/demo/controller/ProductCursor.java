@@ -0,0 +1,50 @@
+package io.vgrente.spring.aot.demo.controller;
+
+import java.nio.charset.StandardCharsets;
+import java.util.Base64;
+
+import io.vgrente.spring.aot.demo.exception.BadRequestException;
+import io.vgrente.spring.aot.demo.model.Product;
+import io.vgrente.spring.aot.demo.model.ProductView;
+
+/**
+ * Opaque keyset pagination cursor. Encodes the sort key of the last product of
+ * a page (its id, plus its price when sorting by price) so clients never
+ * depend on its internal format.
+ */
+record ProductCursor(Long id, Double price) {
+
+	private static final Base64.Encoder ENCODER = Base64.getUrlEncoder().withoutPadding();
+
+	private static final Base64.Decoder DECODER = Base64.getUrlDecoder();
+
+	private static final char SEPARATOR = '@';
+
+	static ProductCursor after(Product product, boolean byPrice) {
+		return new ProductCursor(product.getId(), byPrice ? product.getPrice() : null);
+	}
+
+	static ProductCursor after(ProductView view, boolean byPrice) {
+		return new ProductCursor(view.id(), byPrice ? view.price() : null);
+	}
+
+	String encode() {
+		String key = price == null ? Long.toString(id) : id + String.valueOf(SEPARATOR) + price;
+		return ENCODER.encodeToString(key.getBytes(StandardCharsets.US_ASCII));
+	}
+
+	static ProductCursor decode(String cursor) {
+		try {
+			String key = new String(DECODER.decode(cursor), StandardCharsets.US_ASCII);
+			int separator = key.indexOf(SEPARATOR);
+			if (separator < 0) {
+				return new ProductCursor(Long.valueOf(key), null);
+			}
+			return new ProductCursor(Long.valueOf(key.substring(0, separator)),
+					Double.valueOf(key.substring(separator + 1)));
+		} catch (IllegalArgumentException e) {
+			throw new BadRequestException("Invalid pagination cursor: " + cursor);
+		}
+	}
+
+}
@@ -0,0 +1,138 @@
+package io.vgrente.spring.aot.demo.controller;
+
+import java.util.Comparator;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Set;
+import java.util.function.Function;
+
+import io.vgrente.spring.aot.demo.model.Product;
+import io.vgrente.spring.aot.demo.model.ProductView;
+
+import org.springframework.http.InvalidMediaTypeException;
+import org.springframework.http.MediaType;
+
+/**
+ * Strong entity tags derived from the product {@code @Version} column. A
+ * collection tag hashes the id and version of every product in the response,
+ * so it changes whenever any listed product does.
+ * <p>
+ * Tags are specific to the negotiated format: JSON tags are bare, CBOR and
+ * Smile tags carry a {@code -cbor} or {@code -smile} suffix, and responses
+ * vary by {@code Accept}. A cache therefore never answers one format with a
+ * 304 or a stored body of another.
+ */
+final class ProductETags {
+
+	private static final long FNV_OFFSET_BASIS = 0xcbf29ce484222325L;
+
+	private static final long FNV_PRIME = 0x100000001b3L;
+
+	static final String JSON = "json";
+
+	private static final MediaType SMILE = MediaType.parseMediaType("application/x-jackson-smile");
+
+	private ProductETags() {
+	}
+
+	/**
+	 * The format content negotiation picks for an {@code Accept} header: the
+	 * first of JSON, CBOR and Smile that the most preferred types include,
+	 * JSON by default, and {@code null} for a malformed header.
+	 */
+	static String formatOf(String accept) {
+		if (accept == null || accept.isBlank()) {
+			return JSON;
+		}
+		List<MediaType> types;
+		try {
+			types = MediaType.parseMediaTypes(accept);
+		} catch (InvalidMediaTypeException ex) {
+			return null;
+		}
+		return types.stream().sorted(Comparator.comparingDouble(MediaType::getQualityValue).reversed())
+				.map(ProductETags::formatOf).filter(format -> format != null).findFirst().orElse(JSON);
+	}
+
+	private static String formatOf(MediaType type) {
+		if (type.includes(MediaType.APPLICATION_JSON)) {
+			return JSON;
+		}
+		if (type.includes(MediaType.APPLICATION_CBOR)) {
+			return "cbor";
+		}
+		return type.includes(SMILE) ? "smile" : null;
+	}
+
+	static String of(Product product, String format) {
+		return tag(String.valueOf(product.getVersion()), format);
+	}
+
+	// Sparse views share the tag of the full product: caches key on the URL,
+	// which includes the field selection, and If-Match keeps working
+	static String of(ProductView view, String format) {
+		return tag(String.valueOf(view.version()), format);
+	}
+
+	static String of(List<Product> products, String nextCursor, String format) {
+		return of(products, Product::getId, Product::getVersion, nextCursor, format);
+	}
+
+	static String ofViews(List<ProductView> views, String nextCursor, String format) {
+		return of(views, ProductView::id, ProductView::version, nextCursor, format);
+	}
+
+	private static <T> String of(List<T> items, Function<T, Long> idOf, Function<T, Long> versionOf,
+			String nextCursor, String format) {
+		long hash = FNV_OFFSET_BASIS;
+		for (T item : items) {
+			hash = mix(hash, idOf.apply(item));
+			hash = mix(hash, versionOf.apply(item));
+		}
+		if (nextCursor != null) {
+			hash = mix(hash, nextCursor.hashCode());
+		}
+		return tag(Long.toHexString(hash), format);
+	}
+
+	private static String tag(String value, String format) {
+		return format == null || format.equals(JSON) ? "\"" + value + "\"" : "\"" + value + "-" + format + "\"";
+	}
+
+	/**
+	 * Product versions accepted by an {@code If-Match} header, using strong
+	 * comparison; the tags of every format of a version match it. Returns
+	 * {@code null} when any version is accepted (missing header or {@code *});
+	 * tags that are not product version tags can never match and are dropped.
+	 */
+	static Set<Long> matchingVersions(String ifMatch) {
+		if (ifMatch == null || ifMatch.isBlank()) {
+			return null;
+		}
+		Set<Long> versions = new HashSet<>();
+		for (String candidate : ifMatch.split(",")) {
+			String tag = candidate.trim();
+			if (tag.equals("*")) {
+				return null;
+			}
+			if (tag.length() > 2 && tag.startsWith("\"") && tag.endsWith("\"")) {
+				int suffix = tag.indexOf('-');
+				try {
+					versions.add(Long.parseLong(tag, 1, suffix > 0 ? suffix : tag.length() - 1, 10));
+				} catch (NumberFormatException ex) {
+					// Not one of our tags
+				}
+			}
+		}
+		return versions;
+	}
+
+	private static long mix(long hash, long value) {
+		for (int i = 0; i < Long.BYTES; i++) {
+			hash ^= (value >>> (i * 8)) & 0xff;
+			hash *= FNV_PRIME;
+		}
+		return hash;
+	}
+
+}
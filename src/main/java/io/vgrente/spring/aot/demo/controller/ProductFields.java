@@ -0,0 +1,53 @@
+package io.vgrente.spring.aot.demo.controller;
+
+import java.util.EnumSet;
+import java.util.Locale;
+import java.util.Set;
+
+import io.vgrente.spring.aot.demo.exception.BadRequestException;
+import io.vgrente.spring.aot.demo.model.ProductField;
+
+/**
+ * Parses the {@code fields} request parameter of product reads into the set
+ * of properties to return.
+ */
+final class ProductFields {
+
+	private ProductFields() {
+	}
+
+	/**
+	 * Returns {@code null} when the parameter is absent, meaning the full
+	 * product.
+	 */
+	static Set<ProductField> parse(String fields) {
+		if (fields == null) {
+			return null;
+		}
+		Set<ProductField> selected = EnumSet.noneOf(ProductField.class);
+		for (String name : fields.split(",")) {
+			String property = name.trim();
+			if (property.isEmpty()) {
+				continue;
+			}
+			try {
+				selected.add(ProductField.valueOf(property.toUpperCase(Locale.ROOT)));
+			} catch (IllegalArgumentException e) {
+				throw new BadRequestException("Unknown product field: " + property);
+			}
+		}
+		if (selected.isEmpty()) {
+			throw new BadRequestException("Parameter 'fields' must name at least one field");
+		}
+		return selected;
+	}
+
+	/**
+	 * Whether the selection can be served from a {@code ProductSummary}
+	 * projection rather than a full-column {@code ProductDetail} one.
+	 */
+	static boolean summaryOnly(Set<ProductField> fields) {
+		return !fields.contains(ProductField.DESCRIPTION);
+	}
+
+}
@@ -4,12 +4,18 @@ import java.util.HashMap;
 import java.util.Map;
 
 import io.vgrente.spring.aot.demo.exception.BadRequestException;
+import io.vgrente.spring.aot.demo.exception.PreconditionFailedException;
 import io.vgrente.spring.aot.demo.exception.ResourceNotFoundException;
+import io.vgrente.spring.aot.demo.exception.ServiceUnavailableException;
 import io.vgrente.spring.aot.demo.exception.ValidationException;
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.MeterRegistry;
 import jakarta.servlet.http.HttpServletRequest;
 import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
 
+import org.springframework.dao.OptimisticLockingFailureException;
+import org.springframework.http.HttpHeaders;
 import org.springframework.http.HttpStatus;
 import org.springframework.http.ResponseEntity;
 import org.springframework.http.converter.HttpMessageNotReadableException;
@@ -21,16 +27,63 @@ import org.springframework.web.bind.annotation.RestControllerAdvice;
 /**
  * Global exception handler for all REST controllers. Implements RFC 7807
  * Problem Details for HTTP APIs.
+ * <p>
+ * Every handled exception increments the {@value #ERRORS_METER} counter, tagged
+ * with the handled exception type and response status. The counters are
+ * registered up front so the error path only pays for an atomic increment.
  */
 @RestControllerAdvice
 public class GlobalExceptionHandler {
 
+	static final String ERRORS_METER = "api.errors";
+
 	private static final Logger logger = LoggerFactory.getLogger(GlobalExceptionHandler.class);
 
+	private final Counter notFoundErrors;
+
+	private final Counter validationErrors;
+
+	private final Counter badRequestErrors;
+
+	private final Counter preconditionFailedErrors;
+
+	private final Counter conflictErrors;
+
+	private final Counter unavailableErrors;
+
+	private final Counter argumentNotValidErrors;
+
+	private final Counter notReadableErrors;
+
+	private final Counter unexpectedErrors;
+
+	public GlobalExceptionHandler(MeterRegistry meterRegistry) {
+		this.notFoundErrors = counter(meterRegistry, ResourceNotFoundException.class, HttpStatus.NOT_FOUND);
+		this.validationErrors = counter(meterRegistry, ValidationException.class, HttpStatus.UNPROCESSABLE_ENTITY);
+		this.badRequestErrors = counter(meterRegistry, BadRequestException.class, HttpStatus.BAD_REQUEST);
+		this.preconditionFailedErrors = counter(meterRegistry, PreconditionFailedException.class,
+				HttpStatus.PRECONDITION_FAILED);
+		this.conflictErrors = counter(meterRegistry, OptimisticLockingFailureException.class, HttpStatus.CONFLICT);
+		this.unavailableErrors = counter(meterRegistry, ServiceUnavailableException.class,
+				HttpStatus.SERVICE_UNAVAILABLE);
+		this.argumentNotValidErrors = counter(meterRegistry, MethodArgumentNotValidException.class,
+				HttpStatus.BAD_REQUEST);
+		this.notReadableErrors = counter(meterRegistry, HttpMessageNotReadableException.class,
+				HttpStatus.BAD_REQUEST);
+		this.unexpectedErrors = counter(meterRegistry, Exception.class, HttpStatus.INTERNAL_SERVER_ERROR);
+	}
+
+	private static Counter counter(MeterRegistry meterRegistry, Class<? extends Exception> type, HttpStatus status) {
+		return Counter.builder(ERRORS_METER).description("Exceptions handled by GlobalExceptionHandler")
+				.tag("exception", type.getSimpleName()).tag("status", String.valueOf(status.value()))
+				.register(meterRegistry);
+	}
+
 	@ExceptionHandler(ResourceNotFoundException.class)
 	public ResponseEntity<ErrorResponse> handleResourceNotFoundException(ResourceNotFoundException ex,
 			HttpServletRequest request) {
 		logger.error("Resource not found: {}", ex.getMessage());
+		notFoundErrors.increment();
 
 		ErrorResponse error = ErrorResponse.builder().type("about:blank").title("Resource Not Found")
 				.status(HttpStatus.NOT_FOUND.value()).detail(ex.getMessage()).instance(request.getRequestURI()).build();
@@ -41,6 +94,7 @@ public class GlobalExceptionHandler {
 	@ExceptionHandler(ValidationException.class)
 	public ResponseEntity<ErrorResponse> handleValidationException(ValidationException ex, HttpServletRequest request) {
 		logger.error("Validation error: {}", ex.getMessage());
+		validationErrors.increment();
 
 		ErrorResponse error = ErrorResponse.builder().type("about:blank").title("Validation Error")
 				.status(HttpStatus.UNPROCESSABLE_ENTITY.value()).detail(ex.getMessage())
@@ -52,6 +106,7 @@ public class GlobalExceptionHandler {
 	@ExceptionHandler(BadRequestException.class)
 	public ResponseEntity<ErrorResponse> handleBadRequestException(BadRequestException ex, HttpServletRequest request) {
 		logger.error("Bad request: {}", ex.getMessage());
+		badRequestErrors.increment();
 
 		ErrorResponse error = ErrorResponse.builder().type("about:blank").title("Bad Request")
 				.status(HttpStatus.BAD_REQUEST.value()).detail(ex.getMessage()).instance(request.getRequestURI())
@@ -60,10 +115,53 @@ public class GlobalExceptionHandler {
 		return ResponseEntity.status(HttpStatus.BAD_REQUEST).body(error);
 	}
 
+	@ExceptionHandler(PreconditionFailedException.class)
+	public ResponseEntity<ErrorResponse> handlePreconditionFailedException(PreconditionFailedException ex,
+			HttpServletRequest request) {
+		logger.error("Precondition failed: {}", ex.getMessage());
+		preconditionFailedErrors.increment();
+
+		ErrorResponse error = ErrorResponse.builder().type("about:blank").title("Precondition Failed")
+				.status(HttpStatus.PRECONDITION_FAILED.value()).detail(ex.getMessage())
+				.instance(request.getRequestURI()).build();
+
+		return ResponseEntity.status(HttpStatus.PRECONDITION_FAILED).body(error);
+	}
+
+	@ExceptionHandler(OptimisticLockingFailureException.class)
+	public ResponseEntity<ErrorResponse> handleOptimisticLockingFailure(OptimisticLockingFailureException ex,
+			HttpServletRequest request) {
+		logger.error("Concurrent modification: {}", ex.getMessage());
+		conflictErrors.increment();
+
+		ErrorResponse error = ErrorResponse.builder().type("about:blank").title("Conflict")
+				.status(HttpStatus.CONFLICT.value())
+				.detail("The resource was modified concurrently. Reload it and retry the request.")
+				.instance(request.getRequestURI()).build();
+
+		return ResponseEntity.status(HttpStatus.CONFLICT).body(error);
+	}
+
+	@ExceptionHandler(ServiceUnavailableException.class)
+	public ResponseEntity<ErrorResponse> handleServiceUnavailableException(ServiceUnavailableException ex,
+			HttpServletRequest request) {
+		// Debug only: under overload every shed request lands here, and the
+		// api.errors and products.concurrency.rejected counters carry the signal
+		logger.debug("Service unavailable: {}", ex.getMessage());
+		unavailableErrors.increment();
+
+		ErrorResponse error = ErrorResponse.builder().type("about:blank").title("Service Unavailable")
+				.status(HttpStatus.SERVICE_UNAVAILABLE.value()).detail(ex.getMessage())
+				.instance(request.getRequestURI()).build();
+
+		return ResponseEntity.status(HttpStatus.SERVICE_UNAVAILABLE).header(HttpHeaders.RETRY_AFTER, "1").body(error);
+	}
+
 	@ExceptionHandler(MethodArgumentNotValidException.class)
 	public ResponseEntity<ErrorResponse> handleMethodArgumentNotValid(MethodArgumentNotValidException ex,
 			HttpServletRequest request) {
 		logger.error("Validation failed: {}", ex.getMessage());
+		argumentNotValidErrors.increment();
 
 		Map<String, Object> validationErrors = new HashMap<>();
 		ex.getBindingResult().getAllErrors().forEach(error -> {
@@ -83,6 +181,7 @@ public class GlobalExceptionHandler {
 	public ResponseEntity<ErrorResponse> handleHttpMessageNotReadable(HttpMessageNotReadableException ex,
 			HttpServletRequest request) {
 		logger.error("Malformed JSON request: {}", ex.getMessage());
+		notReadableErrors.increment();
 
 		ErrorResponse error = ErrorResponse.builder().type("about:blank").title("Malformed Request")
 				.status(HttpStatus.BAD_REQUEST.value()).detail("Request body is not readable or malformed")
@@ -94,6 +193,7 @@ public class GlobalExceptionHandler {
 	@ExceptionHandler(Exception.class)
 	public ResponseEntity<ErrorResponse> handleGenericException(Exception ex, HttpServletRequest request) {
 		logger.error("Unexpected error occurred", ex);
+		unexpectedErrors.increment();
 
 		ErrorResponse error = ErrorResponse.builder().type("about:blank").title("Internal Server Error")
 				.status(HttpStatus.INTERNAL_SERVER_ERROR.value())
@@ -0,0 +1,31 @@
+package io.vgrente.spring.aot.demo.event;
+
+import io.vgrente.spring.aot.demo.model.Product;
+
+/**
+ * Published after a product has been created, updated or deleted. Listeners
+ * use it to keep derived state (caches, indexes, aggregates) coherent with the
+ * database. {@code product} holds the new state and is {@code null} for
+ * deletions; {@code previousPrice} is the price the update or deletion
+ * replaced and is {@code null} for creations, so aggregates can apply the
+ * transition without remembering every product.
+ */
+public record ProductChangedEvent(Type type, Long id, Product product, Double previousPrice) {
+
+	public enum Type {
+		CREATED, UPDATED, DELETED
+	}
+
+	public static ProductChangedEvent created(Product product) {
+		return new ProductChangedEvent(Type.CREATED, product.getId(), product, null);
+	}
+
+	public static ProductChangedEvent updated(Product product, Double previousPrice) {
+		return new ProductChangedEvent(Type.UPDATED, product.getId(), product, previousPrice);
+	}
+
+	public static ProductChangedEvent deleted(Long id, Double previousPrice) {
+		return new ProductChangedEvent(Type.DELETED, id, null, previousPrice);
+	}
+
+}
@@ -0,0 +1,42 @@
+package io.vgrente.spring.aot.demo.event;
+
+import io.vgrente.spring.aot.demo.model.Product;
+import jakarta.persistence.PostPersist;
+import jakarta.persistence.PostRemove;
+import jakarta.persistence.PostUpdate;
+
+import org.springframework.context.ApplicationEventPublisher;
+
+/**
+ * Publishes a {@link ProductChangedEvent} for every entity-level write, whether
+ * it comes from a controller, a batch or a direct repository call. Bulk JPQL
+ * statements bypass entity callbacks and must publish their events themselves.
+ * Instantiated by Hibernate through Spring's bean container.
+ * <p>
+ * Entity listeners run before the entity's own callbacks, so
+ * {@link Product#getPersistedPrice()} still holds the price being replaced.
+ */
+public class ProductEntityListener {
+
+	private final ApplicationEventPublisher eventPublisher;
+
+	public ProductEntityListener(ApplicationEventPublisher eventPublisher) {
+		this.eventPublisher = eventPublisher;
+	}
+
+	@PostPersist
+	void onPersist(Product product) {
+		eventPublisher.publishEvent(ProductChangedEvent.created(product));
+	}
+
+	@PostUpdate
+	void onUpdate(Product product) {
+		eventPublisher.publishEvent(ProductChangedEvent.updated(product, product.getPersistedPrice()));
+	}
+
+	@PostRemove
+	void onRemove(Product product) {
+		eventPublisher.publishEvent(ProductChangedEvent.deleted(product.getId(), product.getPersistedPrice()));
+	}
+
+}
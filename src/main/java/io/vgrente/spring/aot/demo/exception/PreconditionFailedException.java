@@ -0,0 +1,9 @@
+package io.vgrente.spring.aot.demo.exception;
+
+public class PreconditionFailedException extends RuntimeException {
+
+	public PreconditionFailedException(String message) {
+		super(message);
+	}
+
+}
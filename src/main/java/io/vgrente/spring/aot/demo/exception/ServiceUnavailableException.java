@@ -0,0 +1,9 @@
+package io.vgrente.spring.aot.demo.exception;
+
+public class ServiceUnavailableException extends RuntimeException {
+
+	public ServiceUnavailableException(String message) {
+		super(message);
+	}
+
+}
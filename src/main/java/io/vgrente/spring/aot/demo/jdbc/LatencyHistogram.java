@@ -0,0 +1,70 @@
+package io.vgrente.spring.aot.demo.jdbc;
+
+import java.util.concurrent.atomic.AtomicLongArray;
+
+/**
+ * Lock-free latency histogram in microseconds with four log-linear buckets per
+ * power of two, so a percentile is reported as the upper bound of its bucket
+ * and overstates the true value by at most 25%. Recording is a single atomic
+ * increment into a fixed array; there is no allocation and no resizing.
+ */
+final class LatencyHistogram {
+
+	private static final int SUB_BUCKET_BITS = 2;
+
+	private static final int SUB_BUCKETS = 1 << SUB_BUCKET_BITS;
+
+	private final AtomicLongArray counts = new AtomicLongArray(Long.SIZE * SUB_BUCKETS);
+
+	void record(long nanos) {
+		counts.incrementAndGet(index(Math.max(1, nanos / 1_000)));
+	}
+
+	/**
+	 * Upper bounds in microseconds of the buckets holding the given quantiles,
+	 * read from one snapshot of the counts; 0 when nothing was recorded.
+	 */
+	long[] percentiles(double... quantiles) {
+		long[] snapshot = new long[counts.length()];
+		long total = 0;
+		for (int i = 0; i < snapshot.length; i++) {
+			snapshot[i] = counts.get(i);
+			total += snapshot[i];
+		}
+		long[] values = new long[quantiles.length];
+		if (total == 0) {
+			return values;
+		}
+		for (int q = 0; q < quantiles.length; q++) {
+			long rank = Math.max(1, (long) Math.ceil(quantiles[q] * total));
+			long seen = 0;
+			for (int i = 0; i < snapshot.length; i++) {
+				seen += snapshot[i];
+				if (seen >= rank) {
+					values[q] = upperBound(i);
+					break;
+				}
+			}
+		}
+		return values;
+	}
+
+	static int index(long micros) {
+		int exponent = Long.SIZE - 1 - Long.numberOfLeadingZeros(micros);
+		if (exponent < SUB_BUCKET_BITS) {
+			return (int) micros;
+		}
+		int subBucket = (int) (micros >>> (exponent - SUB_BUCKET_BITS)) & (SUB_BUCKETS - 1);
+		return exponent * SUB_BUCKETS + subBucket;
+	}
+
+	static long upperBound(int index) {
+		if (index < SUB_BUCKETS) {
+			return index;
+		}
+		int shift = index / SUB_BUCKETS - SUB_BUCKET_BITS;
+		long lower = (long) (SUB_BUCKETS + index % SUB_BUCKETS) << shift;
+		return lower + (1L << shift) - 1;
+	}
+
+}
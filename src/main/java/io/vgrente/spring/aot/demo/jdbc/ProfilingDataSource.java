@@ -0,0 +1,138 @@
+package io.vgrente.spring.aot.demo.jdbc;
+
+import java.lang.reflect.InvocationHandler;
+import java.lang.reflect.InvocationTargetException;
+import java.lang.reflect.Method;
+import java.lang.reflect.Proxy;
+import java.sql.Connection;
+import java.sql.SQLException;
+import java.sql.Statement;
+import java.util.function.Supplier;
+
+import javax.sql.DataSource;
+
+import org.springframework.jdbc.datasource.DelegatingDataSource;
+
+/**
+ * {@link DataSource} that hands out connections whose statements report every
+ * {@code execute*} call to the {@link StatementProfiler}. Connections and
+ * statements are JDK proxies around the pooled ones; all other calls,
+ * including {@code unwrap}, go straight to the target. A batch counts as one
+ * execution.
+ * <p>
+ * The profiler is resolved on first use, since the {@code DataSource} is
+ * wrapped while the context is still being built.
+ */
+class ProfilingDataSource extends DelegatingDataSource {
+
+	private static final String STATEMENT_BATCH = "(statement batch)";
+
+	private final Supplier<StatementProfiler> profilerSupplier;
+
+	private volatile StatementProfiler profiler;
+
+	ProfilingDataSource(DataSource target, Supplier<StatementProfiler> profilerSupplier) {
+		super(target);
+		this.profilerSupplier = profilerSupplier;
+	}
+
+	@Override
+	public Connection getConnection() throws SQLException {
+		return profiled(obtainTargetDataSource().getConnection());
+	}
+
+	@Override
+	public Connection getConnection(String username, String password) throws SQLException {
+		return profiled(obtainTargetDataSource().getConnection(username, password));
+	}
+
+	private Connection profiled(Connection connection) {
+		StatementProfiler profiler = this.profiler;
+		if (profiler == null) {
+			profiler = profilerSupplier.get();
+			this.profiler = profiler;
+		}
+		return (Connection) Proxy.newProxyInstance(ProfilingDataSource.class.getClassLoader(),
+				new Class<?>[] {Connection.class}, new ConnectionHandler(connection, profiler));
+	}
+
+	private record ConnectionHandler(Connection target, StatementProfiler profiler) implements InvocationHandler {
+
+		@Override
+		public Object invoke(Object proxy, Method method, Object[] args) throws Throwable {
+			switch (method.getName()) {
+				case "equals" -> {
+					return proxy == args[0];
+				}
+				case "hashCode" -> {
+					return System.identityHashCode(proxy);
+				}
+				case "prepareStatement", "prepareCall" -> {
+					return statement(method, invokeTarget(target, method, args), profiler.fingerprint((String) args[0]));
+				}
+				case "createStatement" -> {
+					return statement(method, invokeTarget(target, method, args), null);
+				}
+				default -> {
+					return invokeTarget(target, method, args);
+				}
+			}
+		}
+
+		// The proxy implements the declared return type: Statement, PreparedStatement or CallableStatement
+		private Object statement(Method method, Object statement, String fingerprint) {
+			return Proxy.newProxyInstance(ProfilingDataSource.class.getClassLoader(),
+					new Class<?>[] {method.getReturnType()},
+					new StatementHandler((Statement) statement, fingerprint, profiler));
+		}
+
+	}
+
+	/**
+	 * Times {@code execute*} calls. {@code fingerprint} is known up front for
+	 * prepared statements and null for plain ones, which carry their SQL as the
+	 * first argument.
+	 */
+	private record StatementHandler(Statement target, String fingerprint, StatementProfiler profiler)
+			implements InvocationHandler {
+
+		@Override
+		public Object invoke(Object proxy, Method method, Object[] args) throws Throwable {
+			String name = method.getName();
+			if (name.equals("equals")) {
+				return proxy == args[0];
+			}
+			if (name.equals("hashCode")) {
+				return System.identityHashCode(proxy);
+			}
+			if (!name.startsWith("execute")) {
+				return invokeTarget(target, method, args);
+			}
+			long start = System.nanoTime();
+			try {
+				return invokeTarget(target, method, args);
+			} finally {
+				long elapsed = System.nanoTime() - start;
+				profiler.record(fingerprint(args), elapsed);
+			}
+		}
+
+		private String fingerprint(Object[] args) {
+			if (fingerprint != null) {
+				return fingerprint;
+			}
+			return args != null && args.length > 0 && args[0] instanceof String sql ? profiler.fingerprint(sql)
+					: STATEMENT_BATCH;
+		}
+
+	}
+
+	private static Object invokeTarget(Object target, Method method, Object[] args) throws Throwable {
+		try {
+			return method.invoke(target, args);
+		} catch (InvocationTargetException ex) {
+			throw ex.getCause();
+		}
+	}
+
+}
@@ -0,0 +1,94 @@
+package io.vgrente.spring.aot.demo.jdbc;
+
+/**
+ * Reduces SQL to a fingerprint that identifies the statement shape: string and
+ * numeric literals become {@code ?}, runs of whitespace become one space, and
+ * lists of placeholders such as {@code in (?, ?, ?)} collapse to
+ * {@code (?+)}. Statements that only differ in their values or in the length
+ * of an {@code IN} list therefore share one fingerprint, and fingerprints
+ * never contain data.
+ */
+final class SqlFingerprints {
+
+	private SqlFingerprints() {
+	}
+
+	static String of(String sql) {
+		StringBuilder out = new StringBuilder(sql.length());
+		int length = sql.length();
+		int i = 0;
+		while (i < length) {
+			char c = sql.charAt(i);
+			if (c == '\'') {
+				i = skipString(sql, i + 1);
+				appendPlaceholder(out);
+			} else if (Character.isDigit(c) && (i == 0 || !isIdentifierPart(sql.charAt(i - 1)))) {
+				while (i < length && (Character.isDigit(sql.charAt(i)) || sql.charAt(i) == '.')) {
+					i++;
+				}
+				appendPlaceholder(out);
+			} else if (Character.isWhitespace(c)) {
+				if (!out.isEmpty() && out.charAt(out.length() - 1) != ' ') {
+					out.append(' ');
+				}
+				i++;
+			} else if (c == '?') {
+				appendPlaceholder(out);
+				i++;
+			} else {
+				out.append(c);
+				i++;
+			}
+		}
+		int end = out.length();
+		while (end > 0 && out.charAt(end - 1) == ' ') {
+			end--;
+		}
+		out.setLength(end);
+		return out.toString();
+	}
+
+	// Index after the closing quote; doubled quotes are escapes
+	private static int skipString(String sql, int i) {
+		while (i < sql.length()) {
+			if (sql.charAt(i) == '\'') {
+				if (i + 1 < sql.length() && sql.charAt(i + 1) == '\'') {
+					i += 2;
+					continue;
+				}
+				return i + 1;
+			}
+			i++;
+		}
+		return i;
+	}
+
+	// Appends ?, or turns a preceding "?, " or "?+, " into "?+"
+	private static void appendPlaceholder(StringBuilder out) {
+		int end = out.length();
+		while (end > 0 && out.charAt(end - 1) == ' ') {
+			end--;
+		}
+		if (end > 0 && out.charAt(end - 1) == ',') {
+			int previous = end - 1;
+			while (previous > 0 && out.charAt(previous - 1) == ' ') {
+				previous--;
+			}
+			if (previous > 0 && out.charAt(previous - 1) == '?') {
+				out.setLength(previous);
+				out.append('+');
+				return;
+			}
+			if (previous > 1 && out.charAt(previous - 1) == '+' && out.charAt(previous - 2) == '?') {
+				out.setLength(previous);
+				return;
+			}
+		}
+		out.append('?');
+	}
+
+	private static boolean isIdentifierPart(char c) {
+		return Character.isLetterOrDigit(c) || c == '_' || c == '$';
+	}
+
+}
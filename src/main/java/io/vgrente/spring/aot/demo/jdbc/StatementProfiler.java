@@ -0,0 +1,271 @@
+package io.vgrente.spring.aot.demo.jdbc;
+
+import java.time.Duration;
+import java.time.Instant;
+import java.util.ArrayList;
+import java.util.Comparator;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.Executor;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.concurrent.atomic.AtomicReferenceArray;
+import java.util.concurrent.atomic.LongAccumulator;
+import java.util.concurrent.atomic.LongAdder;
+
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.MeterRegistry;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Component;
+
+/**
+ * Statement-level profile of the JDBC traffic, fed by the {@code DataSource}
+ * wrapper from {@link StatementProfilerConfig}.
+ * <p>
+ * Statements are grouped by {@linkplain SqlFingerprints fingerprint}, each
+ * with a count, total and maximum time and a {@link LatencyHistogram}. Once
+ * {@code max-fingerprints} shapes are tracked, new ones are folded into
+ * {@value #OTHER}, so ad-hoc SQL cannot grow the profile without bound.
+ * Executions slower than {@code slow-threshold} are logged and kept in a ring
+ * buffer of the most recent {@code slow-log-size}. Within one HTTP request,
+ * every fingerprint executed at least {@code n-plus-one-threshold} times is
+ * reported as a likely N+1 pattern. Statements a request hands to another
+ * thread count toward it when that thread runs on an executor wrapped with
+ * {@link #propagating(Executor)}, as the cache loader is. Only fingerprints
+ * are kept, never SQL text or bind values.
+ * <p>
+ * The hot path is a map lookup and a few uncontended atomic updates; the
+ * fingerprint of a prepared statement is computed once per distinct SQL
+ * string.
+ */
+@Component
+public class StatementProfiler {
+
+	static final String OTHER = "(other)";
+
+	private static final Logger log = LoggerFactory.getLogger(StatementProfiler.class);
+
+	private final Map<String, String> fingerprints = new ConcurrentHashMap<>();
+
+	private final Map<String, StatementStats> statements = new ConcurrentHashMap<>();
+
+	private final int maxFingerprints;
+
+	private final long slowThresholdNanos;
+
+	private final int repeatThreshold;
+
+	private final AtomicReferenceArray<SlowStatement> slowStatements;
+
+	private final AtomicLong slowSequence = new AtomicLong();
+
+	private final AtomicReferenceArray<RepeatedStatement> repeatedStatements;
+
+	private final AtomicLong repeatedSequence = new AtomicLong();
+
+	private final ThreadLocal<RequestScope> currentRequest = new ThreadLocal<>();
+
+	private final Counter slowCounter;
+
+	private final Counter repeatedCounter;
+
+	public StatementProfiler(MeterRegistry meterRegistry,
+			@Value("${app.jdbc.profiler.max-fingerprints:500}") int maxFingerprints,
+			@Value("${app.jdbc.profiler.slow-threshold:100ms}") Duration slowThreshold,
+			@Value("${app.jdbc.profiler.slow-log-size:100}") int slowLogSize,
+			@Value("${app.jdbc.profiler.n-plus-one-threshold:10}") int repeatThreshold) {
+		this.maxFingerprints = maxFingerprints;
+		this.slowThresholdNanos = slowThreshold.toNanos();
+		this.repeatThreshold = repeatThreshold;
+		this.slowStatements = new AtomicReferenceArray<>(slowLogSize);
+		this.repeatedStatements = new AtomicReferenceArray<>(slowLogSize);
+		this.slowCounter = Counter.builder("jdbc.statements.slow")
+				.description("JDBC executions slower than the profiler threshold").register(meterRegistry);
+		this.repeatedCounter = Counter.builder("jdbc.statements.repeated")
+				.description("Statements repeated within one request at least the N+1 threshold")
+				.register(meterRegistry);
+	}
+
+	/**
+	 * Latency profile of one statement shape, in milliseconds.
+	 */
+	public record StatementReport(String fingerprint, long count, double totalMillis, double meanMillis,
+			double maxMillis, double p50Millis, double p95Millis, double p99Millis) {
+	}
+
+	/**
+	 * One execution slower than the threshold; {@code request} is null outside
+	 * HTTP requests.
+	 */
+	public record SlowStatement(Instant timestamp, String fingerprint, double millis, String request) {
+	}
+
+	/**
+	 * A statement executed {@code count} times within one request.
+	 */
+	public record RepeatedStatement(Instant timestamp, String request, String fingerprint, int count) {
+	}
+
+	/**
+	 * Everything the profiler knows, statements ordered by total time.
+	 */
+	public record Report(List<StatementReport> statements, List<SlowStatement> slowStatements,
+			List<RepeatedStatement> repeatedStatements) {
+	}
+
+	private static final class StatementStats {
+
+		final LongAdder count = new LongAdder();
+
+		final LongAdder totalNanos = new LongAdder();
+
+		final LongAccumulator maxNanos = new LongAccumulator(Math::max, 0);
+
+		final LatencyHistogram histogram = new LatencyHistogram();
+
+	}
+
+	private record RequestScope(String request, Map<String, Integer> executions) {
+	}
+
+	String fingerprint(String sql) {
+		String fingerprint = fingerprints.get(sql);
+		if (fingerprint == null) {
+			fingerprint = SqlFingerprints.of(sql);
+			if (fingerprints.size() < maxFingerprints * 4) {
+				fingerprints.put(sql, fingerprint);
+			}
+		}
+		return fingerprint;
+	}
+
+	void record(String fingerprint, long nanos) {
+		StatementStats stats = statements.get(fingerprint);
+		if (stats == null) {
+			stats = statements.size() < maxFingerprints
+					? statements.computeIfAbsent(fingerprint, key -> new StatementStats())
+					: statements.computeIfAbsent(OTHER, key -> new StatementStats());
+		}
+		stats.count.increment();
+		stats.totalNanos.add(nanos);
+		stats.maxNanos.accumulate(nanos);
+		stats.histogram.record(nanos);
+
+		RequestScope scope = currentRequest.get();
+		if (scope != null) {
+			scope.executions().merge(fingerprint, 1, Integer::sum);
+		}
+		if (nanos >= slowThresholdNanos) {
+			SlowStatement slow = new SlowStatement(Instant.now(), fingerprint, nanos / 1e6,
+					scope != null ? scope.request() : null);
+			append(slowStatements, slowSequence, slow);
+			slowCounter.increment();
+			log.warn("Slow statement ({} ms): {}", Math.round(slow.millis()), fingerprint);
+		}
+	}
+
+	/**
+	 * Starts counting executions for the request on the current thread.
+	 */
+	void beginRequest(String request) {
+		currentRequest.set(new RequestScope(request, new ConcurrentHashMap<>()));
+	}
+
+	/**
+	 * Wraps an executor so that tasks submitted during a request run in its
+	 * scope, and their statements count toward it.
+	 */
+	public Executor propagating(Executor executor) {
+		return task -> {
+			RequestScope scope = currentRequest.get();
+			if (scope == null) {
+				executor.execute(task);
+				return;
+			}
+			executor.execute(() -> {
+				RequestScope previous = currentRequest.get();
+				currentRequest.set(scope);
+				try {
+					task.run();
+				} finally {
+					if (previous != null) {
+						currentRequest.set(previous);
+					} else {
+						currentRequest.remove();
+					}
+				}
+			});
+		};
+	}
+
+	/**
+	 * Ends the request on the current thread and reports its repeated
+	 * statements.
+	 */
+	void endRequest() {
+		RequestScope scope = currentRequest.get();
+		currentRequest.remove();
+		if (scope == null) {
+			return;
+		}
+		scope.executions().forEach((fingerprint, count) -> {
+			if (count >= repeatThreshold) {
+				append(repeatedStatements, repeatedSequence,
+						new RepeatedStatement(Instant.now(), scope.request(), fingerprint, count));
+				repeatedCounter.increment();
+				log.warn("Statement executed {} times in {} (possible N+1): {}", count, scope.request(), fingerprint);
+			}
+		});
+	}
+
+	public Report report() {
+		List<StatementReport> reports = new ArrayList<>(statements.size());
+		statements.forEach((fingerprint, stats) -> {
+			long count = stats.count.sum();
+			if (count == 0) {
+				return;
+			}
+			long total = stats.totalNanos.sum();
+			long[] percentiles = stats.histogram.percentiles(0.5, 0.95, 0.99);
+			reports.add(new StatementReport(fingerprint, count, total / 1e6, total / 1e6 / count,
+					stats.maxNanos.get() / 1e6, percentiles[0] / 1e3, percentiles[1] / 1e3, percentiles[2] / 1e3));
+		});
+		reports.sort(Comparator.comparingDouble(StatementReport::totalMillis).reversed());
+		return new Report(reports, recent(slowStatements, slowSequence), recent(repeatedStatements, repeatedSequence));
+	}
+
+	public void reset() {
+		statements.clear();
+		clear(slowStatements);
+		clear(repeatedStatements);
+	}
+
+	private static <T> void append(AtomicReferenceArray<T> ring, AtomicLong sequence, T entry) {
+		if (ring.length() > 0) {
+			ring.set((int) (sequence.getAndIncrement() % ring.length()), entry);
+		}
+	}
+
+	// Newest first
+	private static <T> List<T> recent(AtomicReferenceArray<T> ring, AtomicLong sequence) {
+		List<T> entries = new ArrayList<>(ring.length());
+		long next = sequence.get();
+		for (long i = next - 1; i >= 0 && i >= next - ring.length(); i--) {
+			T entry = ring.get((int) (i % ring.length()));
+			if (entry != null) {
+				entries.add(entry);
+			}
+		}
+		return entries;
+	}
+
+	private static void clear(AtomicReferenceArray<?> ring) {
+		for (int i = 0; i < ring.length(); i++) {
+			ring.set(i, null);
+		}
+	}
+
+}
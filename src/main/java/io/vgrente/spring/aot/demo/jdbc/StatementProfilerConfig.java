@@ -0,0 +1,102 @@
+package io.vgrente.spring.aot.demo.jdbc;
+
+import java.io.IOException;
+import java.sql.CallableStatement;
+import java.sql.Connection;
+import java.sql.PreparedStatement;
+import java.sql.Statement;
+
+import javax.sql.DataSource;
+
+import jakarta.servlet.FilterChain;
+import jakarta.servlet.ServletException;
+import jakarta.servlet.http.HttpServletRequest;
+import jakarta.servlet.http.HttpServletResponse;
+
+import org.springframework.aot.hint.RuntimeHints;
+import org.springframework.aot.hint.RuntimeHintsRegistrar;
+import org.springframework.beans.factory.ObjectProvider;
+import org.springframework.beans.factory.config.BeanPostProcessor;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnBooleanProperty;
+import org.springframework.boot.web.servlet.FilterRegistrationBean;
+import org.springframework.context.annotation.Bean;
+import org.springframework.context.annotation.Configuration;
+import org.springframework.context.annotation.ImportRuntimeHints;
+import org.springframework.core.Ordered;
+import org.springframework.core.env.Environment;
+import org.springframework.web.filter.OncePerRequestFilter;
+
+/**
+ * Wires the {@link StatementProfiler}: every {@link DataSource} bean is
+ * wrapped in a {@link ProfilingDataSource}, and a filter scopes statement
+ * counts to each HTTP request for N+1 detection. Set
+ * {@code app.jdbc.profiler.enabled=false} to leave the {@code DataSource}
+ * untouched and skip the filter. The connection and statement proxies need
+ * JDK proxy hints in a native image.
+ */
+@Configuration(proxyBeanMethods = false)
+@ImportRuntimeHints(StatementProfilerConfig.JdbcProxyRuntimeHints.class)
+public class StatementProfilerConfig {
+
+	@Bean
+	static BeanPostProcessor profilingDataSourcePostProcessor(Environment environment,
+			ObjectProvider<StatementProfiler> profiler) {
+		boolean enabled = environment.getProperty("app.jdbc.profiler.enabled", Boolean.class, true);
+		return new BeanPostProcessor() {
+
+			@Override
+			public Object postProcessAfterInitialization(Object bean, String beanName) {
+				if (enabled && bean instanceof DataSource dataSource
+						&& !(bean instanceof ProfilingDataSource)) {
+					return new ProfilingDataSource(dataSource, profiler::getObject);
+				}
+				return bean;
+			}
+
+		};
+	}
+
+	@Bean
+	@ConditionalOnBooleanProperty(name = "app.jdbc.profiler.enabled", matchIfMissing = true)
+	FilterRegistrationBean<OncePerRequestFilter> statementProfilerFilter(StatementProfiler profiler) {
+		FilterRegistrationBean<OncePerRequestFilter> registration = new FilterRegistrationBean<>(
+				new RequestScopeFilter(profiler));
+		registration.setOrder(Ordered.HIGHEST_PRECEDENCE + 10);
+		return registration;
+	}
+
+	// Scopes the statement counts of the profiler to each request
+	private static final class RequestScopeFilter extends OncePerRequestFilter {
+
+		private final StatementProfiler profiler;
+
+		RequestScopeFilter(StatementProfiler profiler) {
+			this.profiler = profiler;
+		}
+
+		@Override
+		protected void doFilterInternal(HttpServletRequest request, HttpServletResponse response,
+				FilterChain filterChain) throws ServletException, IOException {
+			profiler.beginRequest(request.getMethod() + " " + request.getRequestURI());
+			try {
+				filterChain.doFilter(request, response);
+			} finally {
+				profiler.endRequest();
+			}
+		}
+
+	}
+
+	static class JdbcProxyRuntimeHints implements RuntimeHintsRegistrar {
+
+		@Override
+		public void registerHints(RuntimeHints hints, ClassLoader classLoader) {
+			hints.proxies().registerJdkProxy(Connection.class);
+			hints.proxies().registerJdkProxy(Statement.class);
+			hints.proxies().registerJdkProxy(PreparedStatement.class);
+			hints.proxies().registerJdkProxy(CallableStatement.class);
+		}
+
+	}
+
+}
@@ -0,0 +1,33 @@
+package io.vgrente.spring.aot.demo.jdbc;
+
+import org.springframework.boot.actuate.endpoint.annotation.DeleteOperation;
+import org.springframework.boot.actuate.endpoint.annotation.Endpoint;
+import org.springframework.boot.actuate.endpoint.annotation.ReadOperation;
+import org.springframework.stereotype.Component;
+
+/**
+ * {@code /actuator/sql}: per-fingerprint latency, recent slow statements and
+ * recent N+1 findings from the {@link StatementProfiler}. A {@code DELETE}
+ * starts a fresh profile.
+ */
+@Component
+@Endpoint(id = "sql")
+public class StatementProfilerEndpoint {
+
+	private final StatementProfiler profiler;
+
+	public StatementProfilerEndpoint(StatementProfiler profiler) {
+		this.profiler = profiler;
+	}
+
+	@ReadOperation
+	public StatementProfiler.Report report() {
+		return profiler.report();
+	}
+
+	@DeleteOperation
+	public void reset() {
+		profiler.reset();
+	}
+
+}
@@ -0,0 +1,30 @@
+package io.vgrente.spring.aot.demo.jfr;
+
+import jdk.jfr.Category;
+import jdk.jfr.Description;
+import jdk.jfr.Event;
+import jdk.jfr.Label;
+import jdk.jfr.Name;
+import jdk.jfr.StackTrace;
+
+/**
+ * Resolution of an exception by the {@code @ExceptionHandler} methods of
+ * {@code GlobalExceptionHandler}, including writing the error body.
+ */
+@Name("io.vgrente.spring.aot.demo.ExceptionHandling")
+@Label("Exception Handling")
+@Category({"Spring AOT Demo", "Web"})
+@Description("Exception resolved by GlobalExceptionHandler")
+@StackTrace(false)
+class ExceptionHandlingEvent extends Event {
+
+	@Label("Exception")
+	String exception;
+
+	@Label("Status")
+	int status;
+
+	@Label("Handled")
+	boolean handled;
+
+}
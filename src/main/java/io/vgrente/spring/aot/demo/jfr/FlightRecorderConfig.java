@@ -0,0 +1,183 @@
+package io.vgrente.spring.aot.demo.jfr;
+
+import java.io.IOException;
+import java.util.List;
+import java.util.Map;
+
+import io.vgrente.spring.aot.demo.controller.ProductController;
+import jakarta.servlet.http.HttpServletRequest;
+import jakarta.servlet.http.HttpServletResponse;
+import org.aopalliance.intercept.MethodInterceptor;
+import tools.jackson.databind.json.JsonMapper;
+
+import org.springframework.beans.factory.config.BeanPostProcessor;
+import org.springframework.context.annotation.Bean;
+import org.springframework.context.annotation.Configuration;
+import org.springframework.core.ResolvableType;
+import org.springframework.data.repository.core.support.RepositoryFactoryBeanSupport;
+import org.springframework.http.HttpOutputMessage;
+import org.springframework.http.converter.json.JacksonJsonHttpMessageConverter;
+import org.springframework.web.method.HandlerMethod;
+import org.springframework.web.servlet.AsyncHandlerInterceptor;
+import org.springframework.web.servlet.HandlerExceptionResolver;
+import org.springframework.web.servlet.HandlerMapping;
+import org.springframework.web.servlet.ModelAndView;
+import org.springframework.web.servlet.config.annotation.InterceptorRegistry;
+import org.springframework.web.servlet.config.annotation.WebMvcConfigurer;
+import org.springframework.web.servlet.mvc.method.annotation.ExceptionHandlerExceptionResolver;
+
+/**
+ * Emits the application's JFR events: {@link ProductRequestEvent} around
+ * {@link ProductController} handlers, {@link RepositoryCallEvent} around every
+ * repository method, {@link ResponseSerializationEvent} around Jackson body
+ * writes, and {@link ExceptionHandlingEvent} around the
+ * {@code @ExceptionHandler} resolver. Events nest on the request thread, so a
+ * recording attributes a request's time to its phases.
+ * <p>
+ * While no recording has the events enabled, each hook costs one small,
+ * usually scalar-replaced allocation and a flag check. JFR event classes are
+ * instrumented at image build time, so the same events work in a native image
+ * built with {@code --enable-monitoring=jfr}.
+ */
+@Configuration(proxyBeanMethods = false)
+public class FlightRecorderConfig {
+
+	private static final String REQUEST_EVENT_ATTRIBUTE = ProductRequestEvent.class.getName();
+
+	@Bean
+	static BeanPostProcessor repositoryCallEventPostProcessor() {
+		return new BeanPostProcessor() {
+
+			@Override
+			public Object postProcessBeforeInitialization(Object bean, String beanName) {
+				if (bean instanceof RepositoryFactoryBeanSupport<?, ?, ?> factoryBean) {
+					factoryBean.addRepositoryFactoryCustomizer(factory -> factory.addRepositoryProxyPostProcessor(
+							(proxyFactory, repositoryInformation) -> proxyFactory.addAdvice(
+									repositoryCallInterceptor(repositoryInformation.getRepositoryInterface()))));
+				}
+				return bean;
+			}
+
+		};
+	}
+
+	private static MethodInterceptor repositoryCallInterceptor(Class<?> repositoryInterface) {
+		String repository = repositoryInterface.getSimpleName();
+		return invocation -> {
+			RepositoryCallEvent event = new RepositoryCallEvent();
+			event.begin();
+			boolean failed = true;
+			try {
+				Object result = invocation.proceed();
+				failed = false;
+				return result;
+			} finally {
+				event.end();
+				if (event.shouldCommit()) {
+					event.repository = repository;
+					event.method = invocation.getMethod().getName();
+					event.failed = failed;
+					event.commit();
+				}
+			}
+		};
+	}
+
+	@Bean
+	JacksonJsonHttpMessageConverter recordingJsonHttpMessageConverter(JsonMapper jsonMapper) {
+		return new JacksonJsonHttpMessageConverter(jsonMapper) {
+
+			@Override
+			protected void writeInternal(Object object, ResolvableType resolvableType, HttpOutputMessage outputMessage,
+					Map<String, Object> hints) throws IOException {
+				ResponseSerializationEvent.time(object, "json",
+						() -> super.writeInternal(object, resolvableType, outputMessage, hints));
+			}
+
+		};
+	}
+
+	@Bean
+	WebMvcConfigurer flightRecorderEvents() {
+		return new WebMvcConfigurer() {
+
+			@Override
+			public void addInterceptors(InterceptorRegistry registry) {
+				registry.addInterceptor(new ProductRequestEventInterceptor());
+			}
+
+			@Override
+			public void extendHandlerExceptionResolvers(List<HandlerExceptionResolver> resolvers) {
+				resolvers.replaceAll(resolver -> resolver instanceof ExceptionHandlerExceptionResolver
+						? new ExceptionHandlingEventResolver(resolver) : resolver);
+			}
+
+		};
+	}
+
+	private static final class ProductRequestEventInterceptor implements AsyncHandlerInterceptor {
+
+		@Override
+		public boolean preHandle(HttpServletRequest request, HttpServletResponse response, Object handler) {
+			if (handler instanceof HandlerMethod handlerMethod
+					&& handlerMethod.getBeanType() == ProductController.class) {
+				ProductRequestEvent event = new ProductRequestEvent();
+				event.begin();
+				request.setAttribute(REQUEST_EVENT_ATTRIBUTE, event);
+			}
+			return true;
+		}
+
+		@Override
+		public void afterConcurrentHandlingStarted(HttpServletRequest request, HttpServletResponse response,
+				Object handler) {
+			commit(request, response, handler, true);
+		}
+
+		@Override
+		public void afterCompletion(HttpServletRequest request, HttpServletResponse response, Object handler,
+				Exception ex) {
+			commit(request, response, handler, false);
+		}
+
+		private static void commit(HttpServletRequest request, HttpServletResponse response, Object handler,
+				boolean async) {
+			if (!(request.getAttribute(REQUEST_EVENT_ATTRIBUTE) instanceof ProductRequestEvent event)) {
+				return;
+			}
+			request.removeAttribute(REQUEST_EVENT_ATTRIBUTE);
+			event.end();
+			if (event.shouldCommit()) {
+				event.handler = ((HandlerMethod) handler).getMethod().getName();
+				event.method = request.getMethod();
+				event.path = String.valueOf(request.getAttribute(HandlerMapping.BEST_MATCHING_PATTERN_ATTRIBUTE));
+				event.status = response.getStatus();
+				event.async = async;
+				event.commit();
+			}
+		}
+
+	}
+
+	private record ExceptionHandlingEventResolver(HandlerExceptionResolver delegate)
+			implements HandlerExceptionResolver {
+
+		@Override
+		public ModelAndView resolveException(HttpServletRequest request, HttpServletResponse response, Object handler,
+				Exception ex) {
+			ExceptionHandlingEvent event = new ExceptionHandlingEvent();
+			event.begin();
+			ModelAndView result = delegate.resolveException(request, response, handler, ex);
+			event.end();
+			if (event.shouldCommit()) {
+				event.exception = ex.getClass().getName();
+				event.handled = result != null;
+				event.status = response.getStatus();
+				event.commit();
+			}
+			return result;
+		}
+
+	}
+
+}
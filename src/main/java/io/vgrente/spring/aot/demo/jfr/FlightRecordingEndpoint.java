@@ -0,0 +1,171 @@
+package io.vgrente.spring.aot.demo.jfr;
+
+import java.io.FilterInputStream;
+import java.io.IOException;
+import java.io.InputStream;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.text.ParseException;
+import java.time.Duration;
+import java.time.Instant;
+import java.util.concurrent.locks.ReentrantLock;
+
+import jdk.jfr.Configuration;
+import jdk.jfr.Recording;
+import jdk.jfr.RecordingState;
+import org.jspecify.annotations.Nullable;
+
+import org.springframework.boot.actuate.endpoint.annotation.DeleteOperation;
+import org.springframework.boot.actuate.endpoint.annotation.ReadOperation;
+import org.springframework.boot.actuate.endpoint.annotation.Selector;
+import org.springframework.boot.actuate.endpoint.annotation.WriteOperation;
+import org.springframework.boot.actuate.endpoint.web.WebEndpointResponse;
+import org.springframework.boot.actuate.endpoint.web.annotation.WebEndpoint;
+import org.springframework.core.io.FileSystemResource;
+import org.springframework.core.io.Resource;
+import org.springframework.stereotype.Component;
+
+/**
+ * {@code /actuator/jfr}: controls one on-demand JFR recording.
+ * <ul>
+ * <li>{@code GET} shows the state of the current recording.</li>
+ * <li>{@code POST} starts a new one, discarding the previous recording, with
+ * the {@code default} or {@code profile} settings and a bounded
+ * {@code maxAge}.</li>
+ * <li>{@code DELETE} stops it; the data stays available for a dump.</li>
+ * <li>{@code GET /actuator/jfr/dump} downloads what was recorded so far, as a
+ * {@code .jfr} file for JDK Mission Control or {@code jfr print}.</li>
+ * </ul>
+ * Recordings include the application events emitted by
+ * {@link FlightRecorderConfig}.
+ */
+@Component
+@WebEndpoint(id = "jfr")
+public class FlightRecordingEndpoint {
+
+	private static final String DUMP = "dump";
+
+	private static final Duration DEFAULT_MAX_AGE = Duration.ofMinutes(10);
+
+	private final ReentrantLock lock = new ReentrantLock();
+
+	private Recording recording;
+
+	private String settings;
+
+	/**
+	 * State of the current recording; {@code state} is {@code NONE} before the
+	 * first start.
+	 */
+	public record RecordingStatus(String state, String settings, Instant startTime, Instant stopTime, long size) {
+	}
+
+	@ReadOperation
+	public RecordingStatus status() {
+		lock.lock();
+		try {
+			return currentStatus();
+		} finally {
+			lock.unlock();
+		}
+	}
+
+	@WriteOperation
+	public WebEndpointResponse<RecordingStatus> start(@Nullable String settings, @Nullable Duration maxAge) {
+		String name = settings != null ? settings : "default";
+		Configuration configuration;
+		try {
+			configuration = Configuration.getConfiguration(name);
+		} catch (IOException | ParseException ex) {
+			return new WebEndpointResponse<>(WebEndpointResponse.STATUS_BAD_REQUEST);
+		}
+		lock.lock();
+		try {
+			if (recording != null) {
+				recording.close();
+			}
+			Recording started = new Recording(configuration);
+			started.setName("on-demand");
+			started.setMaxAge(maxAge != null ? maxAge : DEFAULT_MAX_AGE);
+			started.setToDisk(true);
+			started.start();
+			recording = started;
+			this.settings = name;
+			return new WebEndpointResponse<>(currentStatus());
+		} finally {
+			lock.unlock();
+		}
+	}
+
+	@DeleteOperation
+	public WebEndpointResponse<RecordingStatus> stop() {
+		lock.lock();
+		try {
+			if (recording == null || recording.getState() != RecordingState.RUNNING) {
+				return new WebEndpointResponse<>(WebEndpointResponse.STATUS_NOT_FOUND);
+			}
+			recording.stop();
+			return new WebEndpointResponse<>(currentStatus());
+		} finally {
+			lock.unlock();
+		}
+	}
+
+	@ReadOperation(produces = "application/octet-stream")
+	public WebEndpointResponse<Resource> dump(@Selector String name) throws IOException {
+		lock.lock();
+		try {
+			if (!DUMP.equals(name) || recording == null || recording.getState() == RecordingState.NEW
+					|| recording.getState() == RecordingState.CLOSED) {
+				return new WebEndpointResponse<>(WebEndpointResponse.STATUS_NOT_FOUND);
+			}
+			Path file = Files.createTempFile("recording-", ".jfr");
+			recording.dump(file);
+			return new WebEndpointResponse<>(new TemporaryFileResource(file));
+		} finally {
+			lock.unlock();
+		}
+	}
+
+	private RecordingStatus currentStatus() {
+		if (recording == null) {
+			return new RecordingStatus("NONE", null, null, null, 0);
+		}
+		return new RecordingStatus(recording.getState().name(), settings, recording.getStartTime(),
+				recording.getStopTime(), recording.getSize());
+	}
+
+	/**
+	 * Dump file that is deleted once the response has been streamed.
+	 */
+	private static final class TemporaryFileResource extends FileSystemResource {
+
+		TemporaryFileResource(Path file) {
+			super(file);
+		}
+
+		@Override
+		public boolean isFile() {
+			// Forces streaming through getInputStream() so the file is deleted on close
+			return false;
+		}
+
+		@Override
+		public InputStream getInputStream() throws IOException {
+			return new FilterInputStream(super.getInputStream()) {
+
+				@Override
+				public void close() throws IOException {
+					try {
+						super.close();
+					} finally {
+						Files.deleteIfExists(getFile().toPath());
+					}
+				}
+
+			};
+		}
+
+	}
+
+}
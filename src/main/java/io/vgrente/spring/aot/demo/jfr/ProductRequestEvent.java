@@ -0,0 +1,38 @@
+package io.vgrente.spring.aot.demo.jfr;
+
+import jdk.jfr.Category;
+import jdk.jfr.Description;
+import jdk.jfr.Event;
+import jdk.jfr.Label;
+import jdk.jfr.Name;
+import jdk.jfr.StackTrace;
+
+/**
+ * One {@code ProductController} handler invocation, from the moment the
+ * handler is picked until the response is complete, so repository calls,
+ * response serialization and exception handling nest inside it.
+ */
+@Name("io.vgrente.spring.aot.demo.ProductRequest")
+@Label("Product Request")
+@Category({"Spring AOT Demo", "Web"})
+@Description("ProductController handler invocation, including serialization and exception handling")
+@StackTrace(false)
+class ProductRequestEvent extends Event {
+
+	@Label("Handler")
+	String handler;
+
+	@Label("HTTP Method")
+	String method;
+
+	@Label("Path Pattern")
+	String path;
+
+	@Label("Status")
+	int status;
+
+	@Label("Async")
+	@Description("The handler returned a stream or emitter that completes on another thread")
+	boolean async;
+
+}
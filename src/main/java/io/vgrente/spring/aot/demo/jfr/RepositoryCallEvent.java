@@ -0,0 +1,30 @@
+package io.vgrente.spring.aot.demo.jfr;
+
+import jdk.jfr.Category;
+import jdk.jfr.Description;
+import jdk.jfr.Event;
+import jdk.jfr.Label;
+import jdk.jfr.Name;
+import jdk.jfr.StackTrace;
+
+/**
+ * One call through a Spring Data repository proxy, including the query and
+ * the transaction the proxy opens for it.
+ */
+@Name("io.vgrente.spring.aot.demo.RepositoryCall")
+@Label("Repository Call")
+@Category({"Spring AOT Demo", "Data"})
+@Description("Spring Data repository method invocation")
+@StackTrace(false)
+class RepositoryCallEvent extends Event {
+
+	@Label("Repository")
+	String repository;
+
+	@Label("Method")
+	String method;
+
+	@Label("Failed")
+	boolean failed;
+
+}
@@ -0,0 +1,73 @@
+package io.vgrente.spring.aot.demo.jfr;
+
+import java.io.IOException;
+
+import jdk.jfr.Category;
+import jdk.jfr.Description;
+import jdk.jfr.Event;
+import jdk.jfr.Label;
+import jdk.jfr.Name;
+import jdk.jfr.StackTrace;
+
+/**
+ * Jackson serialization of a response body, whether by a message converter or
+ * into the encoded-body cache.
+ */
+@Name("io.vgrente.spring.aot.demo.ResponseSerialization")
+@Label("Response Serialization")
+@Category({"Spring AOT Demo", "Serialization"})
+@Description("Jackson serialization of a response body")
+@StackTrace(false)
+public final class ResponseSerializationEvent extends Event {
+
+	@Label("Type")
+	String type;
+
+	@Label("Format")
+	String format;
+
+	/**
+	 * Runs a body write inside an event; used by the message converters of every
+	 * format.
+	 */
+	public static void time(Object value, String format, BodyWrite write) throws IOException {
+		ResponseSerializationEvent event = start();
+		try {
+			write.run();
+		} finally {
+			event.finish(value, format);
+		}
+	}
+
+	/**
+	 * Begins an event; pair with {@link #finish} in a {@code finally} block.
+	 */
+	public static ResponseSerializationEvent start() {
+		ResponseSerializationEvent event = new ResponseSerializationEvent();
+		event.begin();
+		return event;
+	}
+
+	/**
+	 * Ends the event and commits it when a recording wants it.
+	 */
+	public void finish(Object value, String format) {
+		end();
+		if (shouldCommit()) {
+			type = value != null ? value.getClass().getSimpleName() : null;
+			this.format = format;
+			commit();
+		}
+	}
+
+	/**
+	 * A body write, typically a converter's {@code super.writeInternal} call.
+	 */
+	@FunctionalInterface
+	public interface BodyWrite {
+
+		void run() throws IOException;
+
+	}
+
+}
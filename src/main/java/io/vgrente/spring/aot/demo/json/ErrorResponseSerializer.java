@@ -0,0 +1,63 @@
+package io.vgrente.spring.aot.demo.json;
+
+import io.vgrente.spring.aot.demo.error.ErrorResponse;
+import tools.jackson.core.JsonGenerator;
+import tools.jackson.core.SerializableString;
+import tools.jackson.core.io.SerializedString;
+import tools.jackson.databind.SerializationContext;
+import tools.jackson.databind.ser.std.StdSerializer;
+
+/**
+ * Writes {@link ErrorResponse} in record component order, omitting null
+ * components like {@code JsonInclude.Include.NON_NULL}. The timestamp and the
+ * free-form {@code errors} map are delegated to the context, so date settings
+ * configured on the mapper still apply.
+ */
+final class ErrorResponseSerializer extends StdSerializer<ErrorResponse> {
+
+	private static final SerializableString TYPE = new SerializedString("type");
+
+	private static final SerializableString TITLE = new SerializedString("title");
+
+	private static final SerializableString STATUS = new SerializedString("status");
+
+	private static final SerializableString DETAIL = new SerializedString("detail");
+
+	private static final SerializableString INSTANCE = new SerializedString("instance");
+
+	private static final SerializableString TIMESTAMP = new SerializedString("timestamp");
+
+	private static final SerializableString ERRORS = new SerializedString("errors");
+
+	ErrorResponseSerializer() {
+		super(ErrorResponse.class);
+	}
+
+	@Override
+	public void serialize(ErrorResponse error, JsonGenerator gen, SerializationContext ctxt) {
+		gen.writeStartObject(error);
+		writeString(gen, TYPE, error.type());
+		writeString(gen, TITLE, error.title());
+		gen.writeName(STATUS);
+		gen.writeNumber(error.status());
+		writeString(gen, DETAIL, error.detail());
+		writeString(gen, INSTANCE, error.instance());
+		if (error.timestamp() != null) {
+			gen.writeName(TIMESTAMP);
+			ctxt.writeValue(gen, error.timestamp());
+		}
+		if (error.errors() != null) {
+			gen.writeName(ERRORS);
+			ctxt.writeValue(gen, error.errors());
+		}
+		gen.writeEndObject();
+	}
+
+	private static void writeString(JsonGenerator gen, SerializableString name, String value) {
+		if (value != null) {
+			gen.writeName(name);
+			gen.writeString(value);
+		}
+	}
+
+}
@@ -0,0 +1,41 @@
+package io.vgrente.spring.aot.demo.json;
+
+import io.vgrente.spring.aot.demo.event.ProductChangedEvent;
+import tools.jackson.core.JsonGenerator;
+import tools.jackson.core.SerializableString;
+import tools.jackson.core.io.SerializedString;
+import tools.jackson.databind.SerializationContext;
+import tools.jackson.databind.ser.std.StdSerializer;
+
+/**
+ * Writes {@link ProductChangedEvent} for the change feed. The product is
+ * delegated to the context, so it uses {@link ProductSerializer}, and is
+ * omitted for deletions.
+ */
+final class ProductChangedEventSerializer extends StdSerializer<ProductChangedEvent> {
+
+	private static final SerializableString TYPE = new SerializedString("type");
+
+	private static final SerializableString ID = new SerializedString("id");
+
+	private static final SerializableString PRODUCT = new SerializedString("product");
+
+	ProductChangedEventSerializer() {
+		super(ProductChangedEvent.class);
+	}
+
+	@Override
+	public void serialize(ProductChangedEvent event, JsonGenerator gen, SerializationContext ctxt) {
+		gen.writeStartObject(event);
+		gen.writeName(TYPE);
+		gen.writeString(event.type().name());
+		gen.writeName(ID);
+		gen.writeNumber(event.id());
+		if (event.product() != null) {
+			gen.writeName(PRODUCT);
+			ctxt.writeValue(gen, event.product());
+		}
+		gen.writeEndObject();
+	}
+
+}
@@ -0,0 +1,71 @@
+package io.vgrente.spring.aot.demo.json;
+
+import io.vgrente.spring.aot.demo.model.Product;
+import tools.jackson.core.JsonParser;
+import tools.jackson.core.JsonToken;
+import tools.jackson.databind.DeserializationContext;
+import tools.jackson.databind.deser.std.StdDeserializer;
+
+/**
+ * Reads {@link Product} straight from the token stream. Plain tokens are
+ * decoded inline, and anything else, such as a quoted number, goes through the
+ * context so the mapper's coercion rules and error messages still apply.
+ * {@code version} is read-only and skipped, as it was with
+ * {@code JsonProperty.Access.READ_ONLY}.
+ */
+final class ProductDeserializer extends StdDeserializer<Product> {
+
+	ProductDeserializer() {
+		super(Product.class);
+	}
+
+	@Override
+	public Product deserialize(JsonParser p, DeserializationContext ctxt) {
+		JsonToken token = p.currentToken();
+		if (token == JsonToken.START_OBJECT) {
+			token = p.nextToken();
+		} else if (token != JsonToken.PROPERTY_NAME && token != JsonToken.END_OBJECT) {
+			return (Product) ctxt.handleUnexpectedToken(Product.class, p);
+		}
+
+		Product product = new Product();
+		for (; token == JsonToken.PROPERTY_NAME; token = p.nextToken()) {
+			String name = p.currentName();
+			p.nextToken();
+			switch (name) {
+				case "id" -> product.setId(readLong(p, ctxt));
+				case "name" -> product.setName(readString(p, ctxt));
+				case "price" -> product.setPrice(readDouble(p, ctxt));
+				case "description" -> product.setDescription(readString(p, ctxt));
+				case "version" -> p.skipChildren();
+				default -> ctxt.handleUnknownProperty(p, this, product, name);
+			}
+		}
+		return product;
+	}
+
+	private static String readString(JsonParser p, DeserializationContext ctxt) {
+		return switch (p.currentToken()) {
+			case VALUE_STRING -> p.getString();
+			case VALUE_NULL -> null;
+			default -> ctxt.readValue(p, String.class);
+		};
+	}
+
+	private static Double readDouble(JsonParser p, DeserializationContext ctxt) {
+		return switch (p.currentToken()) {
+			case VALUE_NUMBER_FLOAT, VALUE_NUMBER_INT -> p.getDoubleValue();
+			case VALUE_NULL -> null;
+			default -> ctxt.readValue(p, Double.class);
+		};
+	}
+
+	private static Long readLong(JsonParser p, DeserializationContext ctxt) {
+		return switch (p.currentToken()) {
+			case VALUE_NUMBER_INT -> p.getLongValue();
+			case VALUE_NULL -> null;
+			default -> ctxt.readValue(p, Long.class);
+		};
+	}
+
+}
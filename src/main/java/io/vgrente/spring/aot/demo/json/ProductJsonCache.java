@@ -0,0 +1,69 @@
+package io.vgrente.spring.aot.demo.json;
+
+import java.util.Objects;
+
+import com.github.benmanes.caffeine.cache.Cache;
+import com.github.benmanes.caffeine.cache.Caffeine;
+import io.vgrente.spring.aot.demo.event.ProductChangedEvent;
+import io.vgrente.spring.aot.demo.jfr.ResponseSerializationEvent;
+import io.vgrente.spring.aot.demo.model.Product;
+import tools.jackson.databind.ObjectMapper;
+
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Component;
+import org.springframework.transaction.event.TransactionalEventListener;
+
+/**
+ * Bounded cache of encoded JSON bodies for full product reads, so concurrent
+ * reads of a hot product share one serialization, even on a miss. An entry is
+ * only served for the product version it was encoded from, so a body can never
+ * outlive the state it describes; committed writes drop the entry as well. The shared
+ * arrays are written to responses as they are and never modified.
+ */
+@Component
+public class ProductJsonCache {
+
+	private final ObjectMapper objectMapper;
+
+	private final Cache<Long, Encoded> bodies;
+
+	public ProductJsonCache(ObjectMapper objectMapper,
+			@Value("${app.products.json-cache.max-size:10000}") long maxSize) {
+		this.objectMapper = objectMapper;
+		this.bodies = Caffeine.newBuilder().maximumSize(maxSize).build();
+	}
+
+	private record Encoded(Long version, byte[] json) {
+	}
+
+	public byte[] encode(Product product) {
+		Encoded encoded = bodies.getIfPresent(product.getId());
+		if (isCurrent(encoded, product)) {
+			return encoded.json();
+		}
+		// Misses go through compute, so concurrent readers of the same product
+		// wait for one serialization instead of each running their own
+		return bodies.asMap()
+				.compute(product.getId(), (id, current) -> isCurrent(current, product) ? current : encodeNew(product))
+				.json();
+	}
+
+	private static boolean isCurrent(Encoded encoded, Product product) {
+		return encoded != null && Objects.equals(encoded.version(), product.getVersion());
+	}
+
+	private Encoded encodeNew(Product product) {
+		ResponseSerializationEvent event = ResponseSerializationEvent.start();
+		try {
+			return new Encoded(product.getVersion(), objectMapper.writeValueAsBytes(product));
+		} finally {
+			event.finish(product, "json");
+		}
+	}
+
+	@TransactionalEventListener(fallbackExecution = true)
+	public void onProductChanged(ProductChangedEvent event) {
+		bodies.invalidate(event.id());
+	}
+
+}
@@ -0,0 +1,32 @@
+package io.vgrente.spring.aot.demo.json;
+
+import io.vgrente.spring.aot.demo.error.ErrorResponse;
+import io.vgrente.spring.aot.demo.event.ProductChangedEvent;
+import io.vgrente.spring.aot.demo.model.Product;
+import io.vgrente.spring.aot.demo.model.ProductView;
+import tools.jackson.databind.module.SimpleModule;
+
+import org.springframework.stereotype.Component;
+
+/**
+ * Dedicated streaming (de)serializers for the types on every request path.
+ * They replace Jackson's reflective bean introspection and the reflection
+ * hints it needs in a native image. Spring Boot registers every
+ * {@code JacksonModule} bean with the auto-configured mapper. Product and
+ * error output is byte-for-byte what the reflective serializers produced,
+ * sparse {@code ProductView}s write a subset of the same properties, and
+ * change feed events embed the same product representation.
+ */
+@Component
+public class ProductJsonModule extends SimpleModule {
+
+	public ProductJsonModule() {
+		super(ProductJsonModule.class.getSimpleName());
+		addSerializer(Product.class, new ProductSerializer());
+		addDeserializer(Product.class, new ProductDeserializer());
+		addSerializer(ProductView.class, new ProductViewSerializer());
+		addSerializer(ProductChangedEvent.class, new ProductChangedEventSerializer());
+		addSerializer(ErrorResponse.class, new ErrorResponseSerializer());
+	}
+
+}
@@ -0,0 +1,58 @@
+package io.vgrente.spring.aot.demo.json;
+
+import io.vgrente.spring.aot.demo.model.Product;
+import tools.jackson.core.JsonGenerator;
+import tools.jackson.core.SerializableString;
+import tools.jackson.core.io.SerializedString;
+import tools.jackson.databind.SerializationContext;
+import tools.jackson.databind.ser.std.StdSerializer;
+
+/**
+ * Writes {@link Product} in the alphabetical property order Jackson 3 uses by
+ * default, with pre-encoded property names.
+ */
+final class ProductSerializer extends StdSerializer<Product> {
+
+	private static final SerializableString ID = new SerializedString("id");
+
+	private static final SerializableString NAME = new SerializedString("name");
+
+	private static final SerializableString PRICE = new SerializedString("price");
+
+	private static final SerializableString DESCRIPTION = new SerializedString("description");
+
+	private static final SerializableString VERSION = new SerializedString("version");
+
+	ProductSerializer() {
+		super(Product.class);
+	}
+
+	@Override
+	public void serialize(Product product, JsonGenerator gen, SerializationContext ctxt) {
+		gen.writeStartObject(product);
+		gen.writeName(DESCRIPTION);
+		gen.writeString(product.getDescription());
+		gen.writeName(ID);
+		writeLong(gen, product.getId());
+		gen.writeName(NAME);
+		gen.writeString(product.getName());
+		gen.writeName(PRICE);
+		if (product.getPrice() != null) {
+			gen.writeNumber(product.getPrice());
+		} else {
+			gen.writeNull();
+		}
+		gen.writeName(VERSION);
+		writeLong(gen, product.getVersion());
+		gen.writeEndObject();
+	}
+
+	private static void writeLong(JsonGenerator gen, Long value) {
+		if (value != null) {
+			gen.writeNumber(value);
+		} else {
+			gen.writeNull();
+		}
+	}
+
+}
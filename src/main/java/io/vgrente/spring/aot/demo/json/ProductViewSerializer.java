@@ -0,0 +1,61 @@
+package io.vgrente.spring.aot.demo.json;
+
+import io.vgrente.spring.aot.demo.model.ProductField;
+import io.vgrente.spring.aot.demo.model.ProductView;
+import tools.jackson.core.JsonGenerator;
+import tools.jackson.core.SerializableString;
+import tools.jackson.core.io.SerializedString;
+import tools.jackson.databind.SerializationContext;
+import tools.jackson.databind.ser.std.StdSerializer;
+
+/**
+ * Writes the selected fields of a {@link ProductView}, in the same order and
+ * format as {@link ProductSerializer}.
+ */
+final class ProductViewSerializer extends StdSerializer<ProductView> {
+
+	private static final SerializableString[] NAMES = new SerializableString[ProductField.values().length];
+
+	static {
+		for (ProductField field : ProductField.values()) {
+			NAMES[field.ordinal()] = new SerializedString(field.propertyName());
+		}
+	}
+
+	ProductViewSerializer() {
+		super(ProductView.class);
+	}
+
+	@Override
+	public void serialize(ProductView view, JsonGenerator gen, SerializationContext ctxt) {
+		gen.writeStartObject(view);
+		for (ProductField field : view.fields()) {
+			gen.writeName(NAMES[field.ordinal()]);
+			switch (field) {
+				case DESCRIPTION -> gen.writeString(view.description());
+				case ID -> writeNumber(gen, view.id());
+				case NAME -> gen.writeString(view.name());
+				case PRICE -> writeNumber(gen, view.price());
+				case VERSION -> writeNumber(gen, view.version());
+			}
+		}
+		gen.writeEndObject();
+	}
+
+	private static void writeNumber(JsonGenerator gen, Long value) {
+		if (value != null) {
+			gen.writeNumber(value);
+		} else {
+			gen.writeNull();
+		}
+	}
+
+	private static void writeNumber(JsonGenerator gen, Double value) {
+		if (value != null) {
+			gen.writeNumber(value);
+		} else {
+			gen.writeNull();
+		}
+	}
+
+}
@@ -1,24 +1,51 @@
 package io.vgrente.spring.aot.demo.model;
 
+import com.fasterxml.jackson.annotation.JsonProperty;
+import io.vgrente.spring.aot.demo.event.ProductEntityListener;
+import jakarta.persistence.Cacheable;
 import jakarta.persistence.Column;
 import jakarta.persistence.Entity;
+import jakarta.persistence.EntityListeners;
 import jakarta.persistence.GeneratedValue;
 import jakarta.persistence.GenerationType;
 import jakarta.persistence.Id;
+import jakarta.persistence.Index;
+import jakarta.persistence.PostLoad;
+import jakarta.persistence.PostPersist;
+import jakarta.persistence.PostUpdate;
+import jakarta.persistence.SequenceGenerator;
 import jakarta.persistence.Table;
+import jakarta.persistence.Transient;
+import jakarta.persistence.Version;
 import jakarta.validation.constraints.NotBlank;
 import jakarta.validation.constraints.NotNull;
 import jakarta.validation.constraints.PositiveOrZero;
+import jakarta.validation.constraints.Size;
+import org.hibernate.annotations.Cache;
+import org.hibernate.annotations.CacheConcurrencyStrategy;
+import org.hibernate.annotations.DynamicUpdate;
 
 @Entity
-@Table(name = "products")
+@Table(name = "products", indexes = @Index(name = "idx_products_price_id", columnList = "price, id"))
+@EntityListeners(ProductEntityListener.class)
+// UPDATE statements only set the columns that changed, so a PATCH of one field
+// does not rewrite the whole row
+@DynamicUpdate
+// Second-level cache entry per product, updated when an entity write commits
+// and dropped for the whole region by bulk statements
+@Cacheable
+@Cache(usage = CacheConcurrencyStrategy.READ_WRITE)
 public class Product {
 
+	// Pooled sequence instead of IDENTITY so Hibernate can batch inserts; the
+	// allocation size matches hibernate.jdbc.batch_size
 	@Id
-	@GeneratedValue(strategy = GenerationType.IDENTITY)
+	@GeneratedValue(strategy = GenerationType.SEQUENCE, generator = "product_seq")
+	@SequenceGenerator(name = "product_seq", sequenceName = "product_seq", allocationSize = 50)
 	private Long id;
 
 	@NotBlank(message = "Product name is required")
+	@Size(max = 255, message = "Product name must be at most 255 characters")
 	@Column(nullable = false)
 	private String name;
 
@@ -27,8 +54,19 @@ public class Product {
 	@Column(nullable = false)
 	private Double price;
 
+	@Size(max = 255, message = "Product description must be at most 255 characters")
 	private String description;
 
+	// Optimistic locking and ETag source; never accepted from clients
+	@Version
+	@JsonProperty(access = JsonProperty.Access.READ_ONLY)
+	private Long version;
+
+	// Price as last read from or written to the database, so change events can
+	// carry the price an update or removal replaced
+	@Transient
+	private Double persistedPrice;
+
 	// Constructors
 	public Product() {
 	}
@@ -71,4 +109,24 @@ public class Product {
 	public void setDescription(String description) {
 		this.description = description;
 	}
+
+	public Long getVersion() {
+		return version;
+	}
+
+	public void setVersion(Long version) {
+		this.version = version;
+	}
+
+	public Double getPersistedPrice() {
+		return persistedPrice;
+	}
+
+	// Also invoked for products assembled from the second-level cache
+	@PostLoad
+	@PostPersist
+	@PostUpdate
+	void rememberPersistedPrice() {
+		this.persistedPrice = price;
+	}
 }
@@ -0,0 +1,21 @@
+package io.vgrente.spring.aot.demo.model;
+
+import java.util.List;
+
+/**
+ * Bulk write request. Operations are applied in order: creates, updates, then
+ * deletes, all within a single transaction.
+ */
+public record ProductBatchRequest(List<Product> create, List<Product> update, List<Long> delete) {
+
+	public ProductBatchRequest {
+		create = create != null ? create : List.of();
+		update = update != null ? update : List.of();
+		delete = delete != null ? delete : List.of();
+	}
+
+	public int size() {
+		return create.size() + update.size() + delete.size();
+	}
+
+}
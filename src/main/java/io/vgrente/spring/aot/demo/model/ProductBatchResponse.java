@@ -0,0 +1,31 @@
+package io.vgrente.spring.aot.demo.model;
+
+import java.util.List;
+import java.util.Map;
+
+import com.fasterxml.jackson.annotation.JsonInclude;
+
+/**
+ * Per-item outcome of a bulk write request.
+ */
+public record ProductBatchResponse(int succeeded, int failed, List<Item> results) {
+
+	public static ProductBatchResponse of(List<Item> results) {
+		int succeeded = (int) results.stream().filter(Item::isSuccess).count();
+		return new ProductBatchResponse(succeeded, results.size() - succeeded, results);
+	}
+
+	public enum Operation {
+		CREATE, UPDATE, DELETE
+	}
+
+	@JsonInclude(JsonInclude.Include.NON_NULL)
+	public record Item(Operation operation, int index, Long id, int status, Map<String, String> errors) {
+
+		public boolean isSuccess() {
+			return status < 400;
+		}
+
+	}
+
+}
@@ -0,0 +1,15 @@
+package io.vgrente.spring.aot.demo.model;
+
+/**
+ * Every product column, read through a constructor expression for sparse
+ * fieldsets that include the description. Nothing is managed or cached, unlike
+ * a {@link Product} read.
+ */
+public record ProductDetail(Long id, String name, Double price, String description, Long version) {
+
+	public static ProductDetail of(Product product) {
+		return new ProductDetail(product.getId(), product.getName(), product.getPrice(), product.getDescription(),
+				product.getVersion());
+	}
+
+}
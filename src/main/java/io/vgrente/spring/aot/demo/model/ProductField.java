@@ -0,0 +1,22 @@
+package io.vgrente.spring.aot.demo.model;
+
+/**
+ * Product properties a client can select with {@code ?fields=}. Declared in
+ * the alphabetical order Jackson writes them in, so iterating an
+ * {@code EnumSet} yields the serialized order.
+ */
+public enum ProductField {
+
+	DESCRIPTION("description"), ID("id"), NAME("name"), PRICE("price"), VERSION("version");
+
+	private final String propertyName;
+
+	ProductField(String propertyName) {
+		this.propertyName = propertyName;
+	}
+
+	public String propertyName() {
+		return propertyName;
+	}
+
+}
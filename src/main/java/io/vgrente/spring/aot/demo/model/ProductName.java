@@ -0,0 +1,8 @@
+package io.vgrente.spring.aot.demo.model;
+
+/**
+ * Id and name of a product, used to build the in-memory search index without
+ * hydrating full entities.
+ */
+public record ProductName(Long id, String name) {
+}
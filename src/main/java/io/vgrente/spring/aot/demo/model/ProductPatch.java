@@ -0,0 +1,69 @@
+package io.vgrente.spring.aot.demo.model;
+
+import com.fasterxml.jackson.annotation.JsonSetter;
+import com.fasterxml.jackson.annotation.Nulls;
+import jakarta.validation.constraints.Pattern;
+import jakarta.validation.constraints.PositiveOrZero;
+
+/**
+ * Partial product update with JSON Merge Patch semantics: absent properties
+ * are left unchanged and an explicit {@code null} clears the description.
+ * Name and price are required, so a {@code null} for either is rejected as
+ * malformed.
+ */
+public class ProductPatch {
+
+	@JsonSetter(nulls = Nulls.FAIL)
+	@Pattern(regexp = "(?s).*\\S.*", message = "Product name is required")
+	private String name;
+
+	@JsonSetter(nulls = Nulls.FAIL)
+	@PositiveOrZero(message = "Product price must be greater than or equal to 0")
+	private Double price;
+
+	private String description;
+
+	private boolean descriptionPresent;
+
+	public String getName() {
+		return name;
+	}
+
+	public void setName(String name) {
+		this.name = name;
+	}
+
+	public Double getPrice() {
+		return price;
+	}
+
+	public void setPrice(Double price) {
+		this.price = price;
+	}
+
+	public String getDescription() {
+		return description;
+	}
+
+	public void setDescription(String description) {
+		this.description = description;
+		this.descriptionPresent = true;
+	}
+
+	/**
+	 * Copies the supplied properties onto {@code product}. Hibernate only writes
+	 * the columns whose value actually changed.
+	 */
+	public void applyTo(Product product) {
+		if (name != null) {
+			product.setName(name);
+		}
+		if (price != null) {
+			product.setPrice(price);
+		}
+		if (descriptionPresent) {
+			product.setDescription(description);
+		}
+	}
+
+}
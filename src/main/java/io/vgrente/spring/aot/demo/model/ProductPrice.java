@@ -0,0 +1,8 @@
+package io.vgrente.spring.aot.demo.model;
+
+/**
+ * Id and price of a product, used to build the in-memory catalog statistics
+ * without hydrating full entities.
+ */
+public record ProductPrice(Long id, Double price) {
+}
@@ -0,0 +1,15 @@
+package io.vgrente.spring.aot.demo.model;
+
+import java.util.List;
+
+/**
+ * Catalog-wide product statistics. Prices are {@code null} while the catalog
+ * is empty. Buckets cover {@code [from, to)}; the last one has no upper bound.
+ */
+public record ProductStats(long count, Double minPrice, Double maxPrice, Double averagePrice,
+		List<PriceBucket> priceBuckets) {
+
+	public record PriceBucket(double from, Double to, long count) {
+	}
+
+}
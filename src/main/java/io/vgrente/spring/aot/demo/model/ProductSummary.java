@@ -0,0 +1,14 @@
+package io.vgrente.spring.aot.demo.model;
+
+/**
+ * Product without its description, read through a constructor expression for
+ * sparse fieldsets. Only these columns are selected and no entity is
+ * instantiated. The version is always read so responses keep their ETag.
+ */
+public record ProductSummary(Long id, String name, Double price, Long version) {
+
+	public static ProductSummary of(Product product) {
+		return new ProductSummary(product.getId(), product.getName(), product.getPrice(), product.getVersion());
+	}
+
+}
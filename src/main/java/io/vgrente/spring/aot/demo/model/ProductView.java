@@ -0,0 +1,27 @@
+package io.vgrente.spring.aot.demo.model;
+
+import java.util.Set;
+
+/**
+ * Sparse product representation: only the selected {@code fields} are
+ * serialized. Id, price and version are always populated because pagination
+ * cursors and ETags are derived from them.
+ */
+public record ProductView(Set<ProductField> fields, Long id, String name, Double price, String description,
+		Long version) {
+
+	public static ProductView of(Product product, Set<ProductField> fields) {
+		return new ProductView(fields, product.getId(), product.getName(), product.getPrice(),
+				product.getDescription(), product.getVersion());
+	}
+
+	public static ProductView of(ProductSummary summary, Set<ProductField> fields) {
+		return new ProductView(fields, summary.id(), summary.name(), summary.price(), null, summary.version());
+	}
+
+	public static ProductView of(ProductDetail detail, Set<ProductField> fields) {
+		return new ProductView(fields, detail.id(), detail.name(), detail.price(), detail.description(),
+				detail.version());
+	}
+
+}
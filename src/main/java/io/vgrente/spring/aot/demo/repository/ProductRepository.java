@@ -1,15 +1,191 @@
 package io.vgrente.spring.aot.demo.repository;
 
 import io.vgrente.spring.aot.demo.model.Product;
+import io.vgrente.spring.aot.demo.model.ProductDetail;
+import io.vgrente.spring.aot.demo.model.ProductName;
+import io.vgrente.spring.aot.demo.model.ProductPrice;
+import io.vgrente.spring.aot.demo.model.ProductSummary;
+import jakarta.persistence.QueryHint;
+import org.hibernate.jpa.HibernateHints;
+import org.springframework.data.domain.Limit;
 import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Query;
+import org.springframework.data.jpa.repository.QueryHints;
 import org.springframework.stereotype.Repository;
 
+import java.util.Collection;
 import java.util.List;
+import java.util.Optional;
+import java.util.stream.Stream;
 
 @Repository
 public interface ProductRepository extends JpaRepository<Product, Long> {
 
+	// Cacheable queries keep the matching ids in the query cache and read the
+	// products from the entity cache. Any write to products invalidates them.
+	@QueryHints(@QueryHint(name = HibernateHints.HINT_CACHEABLE, value = "true"))
 	List<Product> findByNameContainingIgnoreCase(String name);
 
+	@QueryHints(@QueryHint(name = HibernateHints.HINT_CACHEABLE, value = "true"))
+	List<Product> findByNameContainingIgnoreCase(String name, Limit limit);
+
+	@QueryHints(@QueryHint(name = HibernateHints.HINT_CACHEABLE, value = "true"))
 	List<Product> findByPriceLessThan(Double price);
+
+	// Keyset pagination ordered by id: first page (cached, as the most requested
+	// one), then every row after the last seen id
+	@QueryHints(@QueryHint(name = HibernateHints.HINT_CACHEABLE, value = "true"))
+	List<Product> findByPriceBetweenOrderByIdAsc(Double minPrice, Double maxPrice, Limit limit);
+
+	List<Product> findByPriceBetweenAndIdGreaterThanOrderByIdAsc(Double minPrice, Double maxPrice, Long id,
+			Limit limit);
+
+	// Keyset pagination ordered by (price, id), served by idx_products_price_id
+	@QueryHints(@QueryHint(name = HibernateHints.HINT_CACHEABLE, value = "true"))
+	@Query("select p from Product p where p.price between :minPrice and :maxPrice order by p.price, p.id")
+	List<Product> findByPriceRangeOrderByPrice(Double minPrice, Double maxPrice, Limit limit);
+
+	@Query("""
+			select p from Product p
+			where p.price between :minPrice and :maxPrice
+			and (p.price > :price or (p.price = :price and p.id > :id))
+			order by p.price, p.id""")
+	List<Product> findByPriceRangeOrderByPriceAfter(Double minPrice, Double maxPrice, Double price, Long id,
+			Limit limit);
+
+	// Forward-only cursor for bulk export; must be consumed inside a transaction
+	// and closed. It bypasses the second-level cache, so an export neither
+	// reads from it nor floods it with every product.
+	@QueryHints({@QueryHint(name = HibernateHints.HINT_FETCH_SIZE, value = "500"),
+			@QueryHint(name = HibernateHints.HINT_READ_ONLY, value = "true"),
+			@QueryHint(name = HibernateHints.HINT_CACHE_MODE, value = "IGNORE")})
+	Stream<Product> streamAllByOrderByIdAsc();
+
+	@QueryHints(@QueryHint(name = HibernateHints.HINT_FETCH_SIZE, value = "500"))
+	@Query("select new io.vgrente.spring.aot.demo.model.ProductName(p.id, p.name) from Product p order by p.id")
+	Stream<ProductName> streamAllNames();
+
+	@QueryHints(@QueryHint(name = HibernateHints.HINT_FETCH_SIZE, value = "500"))
+	@Query("select new io.vgrente.spring.aot.demo.model.ProductPrice(p.id, p.price) from Product p")
+	Stream<ProductPrice> streamAllPrices();
+
+	// Description-less projections for sparse fieldsets, mirroring the reads
+	// above: only these columns are selected and no entities are managed
+	Optional<ProductSummary> findSummaryById(Long id);
+
+	List<ProductSummary> findSummariesByIdIn(Collection<Long> ids);
+
+	List<ProductSummary> findSummariesByNameContainingIgnoreCase(String name, Limit limit);
+
+	List<ProductSummary> findSummariesByPriceBetweenOrderByIdAsc(Double minPrice, Double maxPrice, Limit limit);
+
+	List<ProductSummary> findSummariesByPriceBetweenAndIdGreaterThanOrderByIdAsc(Double minPrice, Double maxPrice,
+			Long id, Limit limit);
+
+	@Query("""
+			select new io.vgrente.spring.aot.demo.model.ProductSummary(p.id, p.name, p.price, p.version)
+			from Product p
+			where p.price between :minPrice and :maxPrice
+			order by p.price, p.id""")
+	List<ProductSummary> findSummariesByPriceRangeOrderByPrice(Double minPrice, Double maxPrice, Limit limit);
+
+	@Query("""
+			select new io.vgrente.spring.aot.demo.model.ProductSummary(p.id, p.name, p.price, p.version)
+			from Product p
+			where p.price between :minPrice and :maxPrice
+			and (p.price > :price or (p.price = :price and p.id > :id))
+			order by p.price, p.id""")
+	List<ProductSummary> findSummariesByPriceRangeOrderByPriceAfter(Double minPrice, Double maxPrice, Double price,
+			Long id, Limit limit);
+
+	// Full-column projections of the same reads, for fieldsets that include the
+	// description
+	Optional<ProductDetail> findDetailById(Long id);
+
+	List<ProductDetail> findDetailsByIdIn(Collection<Long> ids);
+
+	List<ProductDetail> findDetailsByNameContainingIgnoreCase(String name, Limit limit);
+
+	List<ProductDetail> findDetailsByPriceBetweenOrderByIdAsc(Double minPrice, Double maxPrice, Limit limit);
+
+	List<ProductDetail> findDetailsByPriceBetweenAndIdGreaterThanOrderByIdAsc(Double minPrice, Double maxPrice,
+			Long id, Limit limit);
+
+	@Query("""
+			select new io.vgrente.spring.aot.demo.model.ProductDetail(p.id, p.name, p.price, p.description, p.version)
+			from Product p
+			where p.price between :minPrice and :maxPrice
+			order by p.price, p.id""")
+	List<ProductDetail> findDetailsByPriceRangeOrderByPrice(Double minPrice, Double maxPrice, Limit limit);
+
+	@Query("""
+			select new io.vgrente.spring.aot.demo.model.ProductDetail(p.id, p.name, p.price, p.description, p.version)
+			from Product p
+			where p.price between :minPrice and :maxPrice
+			and (p.price > :price or (p.price = :price and p.id > :id))
+			order by p.price, p.id""")
+	List<ProductDetail> findDetailsByPriceRangeOrderByPriceAfter(Double minPrice, Double maxPrice, Double price,
+			Long id, Limit limit);
+
+	// Reserves the next block of ids from the pooled product_seq generator, as
+	// ProductSeeder does (H2 syntax)
+	@Query(value = "SELECT NEXT VALUE FOR product_seq", nativeQuery = true)
+	long nextIdBlock();
+
+	@Query("select p.version from Product p where p.id = :id")
+	Optional<Long> findVersionById(Long id);
+
+	/**
+	 * A product row as it was before a returning write, read from H2's
+	 * {@code OLD TABLE} of the statement.
+	 */
+	interface PreviousState {
+
+		Long getId();
+
+		Double getPrice();
+
+		Long getVersion();
+
+	}
+
+	// Single-statement writes that return the rows they replaced or deleted, so
+	// the caller learns in the same round trip whether the product existed and
+	// matched one of the expected versions, its previous price and (for
+	// replacements) its new version. They bypass entity callbacks, so callers
+	// publish the change events, and Hibernate runs them as queries rather than
+	// bulk statements, so callers also evict the cached products themselves.
+	@Query(value = """
+			SELECT id, price, version FROM OLD TABLE (
+			UPDATE products SET name = :name, price = :price, description = :description, version = version + 1
+			WHERE id = :id)""", nativeQuery = true)
+	Optional<PreviousState> replaceById(Long id, String name, Double price, String description);
+
+	@Query(value = """
+			SELECT id, price, version FROM OLD TABLE (
+			UPDATE products SET name = :name, price = :price, description = :description, version = version + 1
+			WHERE id = :id AND version IN (:versions))""", nativeQuery = true)
+	Optional<PreviousState> replaceByIdAndVersionIn(Long id, Collection<Long> versions, String name, Double price,
+			String description);
+
+	// Returns the inserted id. Run as a query like the writes above, so
+	// Hibernate does not drop the whole Product region as for a bulk insert.
+	@Query(value = """
+			SELECT id FROM FINAL TABLE (
+			INSERT INTO products (id, name, price, description, version)
+			VALUES (:id, :name, :price, :description, 0))""", nativeQuery = true)
+	Long insertWithId(Long id, String name, Double price, String description);
+
+	@Query(value = "SELECT id, price, version FROM OLD TABLE (DELETE FROM products WHERE id = :id)",
+			nativeQuery = true)
+	Optional<PreviousState> removeById(Long id);
+
+	@Query(value = """
+			SELECT id, price, version FROM OLD TABLE (
+			DELETE FROM products WHERE id = :id AND version IN (:versions))""", nativeQuery = true)
+	Optional<PreviousState> removeByIdAndVersionIn(Long id, Collection<Long> versions);
+
+	@Query(value = "SELECT id, price, version FROM OLD TABLE (DELETE FROM products WHERE id IN (:ids))",
+			nativeQuery = true)
+	List<PreviousState> removeAllByIdIn(Collection<Long> ids);
 }
@@ -0,0 +1,150 @@
+package io.vgrente.spring.aot.demo.service;
+
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.HashSet;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.function.Function;
+import java.util.stream.Collectors;
+
+import io.vgrente.spring.aot.demo.event.ProductChangedEvent;
+import io.vgrente.spring.aot.demo.model.Product;
+import io.vgrente.spring.aot.demo.model.ProductBatchRequest;
+import io.vgrente.spring.aot.demo.model.ProductBatchResponse;
+import io.vgrente.spring.aot.demo.model.ProductBatchResponse.Item;
+import io.vgrente.spring.aot.demo.model.ProductBatchResponse.Operation;
+import io.vgrente.spring.aot.demo.repository.ProductRepository;
+import io.vgrente.spring.aot.demo.repository.ProductRepository.PreviousState;
+import jakarta.validation.ConstraintViolation;
+import jakarta.validation.Validator;
+
+import org.springframework.context.ApplicationEventPublisher;
+import org.springframework.http.HttpStatus;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.annotation.Transactional;
+
+/**
+ * Applies bulk product writes in a single transaction. Every item is validated
+ * up front, existing rows are resolved with one query per operation type, and
+ * the resulting inserts, updates and deletes are sent as JDBC batches.
+ * Deletes run as a single statement returning the deleted rows, which bypasses
+ * entity callbacks, so their {@link ProductChangedEvent}s are published here.
+ */
+@Service
+public class ProductBatchService {
+
+	private final ProductRepository productRepository;
+
+	private final Validator validator;
+
+	private final ApplicationEventPublisher eventPublisher;
+
+	private final ProductCacheEviction cacheEviction;
+
+	public ProductBatchService(ProductRepository productRepository, Validator validator,
+			ApplicationEventPublisher eventPublisher, ProductCacheEviction cacheEviction) {
+		this.productRepository = productRepository;
+		this.validator = validator;
+		this.eventPublisher = eventPublisher;
+		this.cacheEviction = cacheEviction;
+	}
+
+	@Transactional
+	public ProductBatchResponse apply(ProductBatchRequest request) {
+		List<Item> results = new ArrayList<>(request.size());
+		create(request.create(), results);
+		update(request.update(), results);
+		delete(request.delete(), results);
+		return ProductBatchResponse.of(results);
+	}
+
+	private void create(List<Product> products, List<Item> results) {
+		List<Product> valid = new ArrayList<>(products.size());
+		List<Integer> validIndexes = new ArrayList<>(products.size());
+
+		for (int i = 0; i < products.size(); i++) {
+			Product product = products.get(i);
+			Map<String, String> errors = validate(product);
+			if (product.getId() != null) {
+				errors.put("id", "Product ID must not be provided when creating a new product");
+			}
+			if (errors.isEmpty()) {
+				valid.add(product);
+				validIndexes.add(i);
+			} else {
+				results.add(new Item(Operation.CREATE, i, null, HttpStatus.BAD_REQUEST.value(), errors));
+			}
+		}
+
+		List<Product> saved = productRepository.saveAll(valid);
+		for (int i = 0; i < saved.size(); i++) {
+			results.add(new Item(Operation.CREATE, validIndexes.get(i), saved.get(i).getId(),
+					HttpStatus.CREATED.value(), null));
+		}
+	}
+
+	private void update(List<Product> products, List<Item> results) {
+		Set<Long> ids = products.stream().map(Product::getId).filter(id -> id != null).collect(Collectors.toSet());
+		Map<Long, Product> existing = productRepository.findAllById(ids).stream()
+				.collect(Collectors.toMap(Product::getId, Function.identity()));
+
+		for (int i = 0; i < products.size(); i++) {
+			Product product = products.get(i);
+			Map<String, String> errors = validate(product);
+			if (product.getId() == null) {
+				errors.put("id", "Product ID is required when updating a product");
+			}
+			if (!errors.isEmpty()) {
+				results.add(new Item(Operation.UPDATE, i, product.getId(), HttpStatus.BAD_REQUEST.value(), errors));
+				continue;
+			}
+
+			Product existingProduct = existing.get(product.getId());
+			if (existingProduct == null) {
+				results.add(new Item(Operation.UPDATE, i, product.getId(), HttpStatus.NOT_FOUND.value(), null));
+				continue;
+			}
+
+			// Dirty checking flushes these as batched UPDATE statements on commit
+			existingProduct.setName(product.getName());
+			existingProduct.setPrice(product.getPrice());
+			existingProduct.setDescription(product.getDescription());
+			results.add(new Item(Operation.UPDATE, i, product.getId(), HttpStatus.OK.value(), null));
+		}
+	}
+
+	private void delete(List<Long> ids, List<Item> results) {
+		Map<Long, Double> previousPrices = new HashMap<>();
+		if (!ids.isEmpty()) {
+			for (PreviousState previous : productRepository.removeAllByIdIn(ids)) {
+				previousPrices.put(previous.getId(), previous.getPrice());
+			}
+			cacheEviction.evict(previousPrices.keySet());
+		}
+
+		Set<Long> published = new HashSet<>();
+		for (int i = 0; i < ids.size(); i++) {
+			Long id = ids.get(i);
+			if (previousPrices.containsKey(id)) {
+				results.add(new Item(Operation.DELETE, i, id, HttpStatus.NO_CONTENT.value(), null));
+				if (published.add(id)) {
+					eventPublisher.publishEvent(ProductChangedEvent.deleted(id, previousPrices.get(id)));
+				}
+			} else {
+				results.add(new Item(Operation.DELETE, i, id, HttpStatus.NOT_FOUND.value(), null));
+			}
+		}
+	}
+
+	private Map<String, String> validate(Product product) {
+		Map<String, String> errors = new LinkedHashMap<>();
+		for (ConstraintViolation<Product> violation : validator.validate(product)) {
+			errors.put(violation.getPropertyPath().toString(), violation.getMessage());
+		}
+		return errors;
+	}
+
+}
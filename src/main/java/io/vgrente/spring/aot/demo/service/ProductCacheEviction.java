@@ -0,0 +1,56 @@
+package io.vgrente.spring.aot.demo.service;
+
+import java.util.Collection;
+import java.util.List;
+
+import io.vgrente.spring.aot.demo.model.Product;
+import jakarta.persistence.EntityManagerFactory;
+import org.hibernate.Cache;
+import org.hibernate.SessionFactory;
+
+import org.springframework.stereotype.Component;
+import org.springframework.transaction.support.TransactionSynchronization;
+import org.springframework.transaction.support.TransactionSynchronizationManager;
+
+/**
+ * Second-level cache eviction for the returning writes of
+ * {@link io.vgrente.spring.aot.demo.repository.ProductRepository}. Hibernate
+ * runs them as native queries rather than bulk statements, so it leaves the
+ * cached products and query results in place. They are dropped now, and again
+ * after completion in case a concurrent reader cached the old row in between.
+ * Must be called inside the writing transaction.
+ */
+@Component
+class ProductCacheEviction {
+
+	private final Cache cache;
+
+	ProductCacheEviction(EntityManagerFactory entityManagerFactory) {
+		this.cache = entityManagerFactory.unwrap(SessionFactory.class).getCache();
+	}
+
+	void evict(Long id) {
+		evict(List.of(id));
+	}
+
+	void evict(Collection<Long> ids) {
+		if (ids.isEmpty()) {
+			return;
+		}
+		List<Long> evicted = List.copyOf(ids);
+		Runnable evict = () -> {
+			evicted.forEach(id -> cache.evictEntityData(Product.class, id));
+			cache.evictDefaultQueryRegion();
+		};
+		evict.run();
+		TransactionSynchronizationManager.registerSynchronization(new TransactionSynchronization() {
+
+			@Override
+			public void afterCompletion(int status) {
+				evict.run();
+			}
+
+		});
+	}
+
+}
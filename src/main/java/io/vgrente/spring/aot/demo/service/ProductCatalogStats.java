@@ -0,0 +1,226 @@
+package io.vgrente.spring.aot.demo.service;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+import java.util.Map;
+import java.util.NavigableMap;
+import java.util.Objects;
+import java.util.Set;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ConcurrentSkipListMap;
+import java.util.concurrent.atomic.LongAdder;
+import java.util.concurrent.locks.ReadWriteLock;
+import java.util.concurrent.locks.ReentrantReadWriteLock;
+import java.util.stream.Stream;
+
+import io.vgrente.spring.aot.demo.event.ProductChangedEvent;
+import io.vgrente.spring.aot.demo.exception.ServiceUnavailableException;
+import io.vgrente.spring.aot.demo.model.ProductPrice;
+import io.vgrente.spring.aot.demo.model.ProductStats;
+import io.vgrente.spring.aot.demo.repository.ProductRepository;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.context.event.ApplicationReadyEvent;
+import org.springframework.context.event.EventListener;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.annotation.Transactional;
+import org.springframework.transaction.event.TransactionalEventListener;
+
+/**
+ * Product count, price range, average price and a price histogram, built once
+ * the application is ready and then maintained from {@link ProductChangedEvent}s,
+ * so reading them never touches the database.
+ * <p>
+ * Each event carries the price it replaced, so a change applies exactly that
+ * transition and no per-product state is kept. Count, total and buckets are
+ * {@link LongAdder}s and the distinct prices a lock-free skip list holding a
+ * product count per price, whose ends are the minimum and maximum. Writers
+ * therefore never share a lock, and a snapshot costs the same for any catalog
+ * size. Prices are kept in cents, so the average does not drift as prices
+ * come and go.
+ * <p>
+ * Until the initial build completes, events may overlap the rows it streams,
+ * so the last known price of every product is tracked instead; replacing it
+ * yields the old price atomically. Deletions committed while the build streams
+ * the table are remembered, so it cannot resurrect them. The tracking map is
+ * dropped once the build is done.
+ */
+@Service
+public class ProductCatalogStats {
+
+	private static final Logger log = LoggerFactory.getLogger(ProductCatalogStats.class);
+
+	private final ProductRepository productRepository;
+
+	// Exclusive upper bounds of all but the last bucket, ascending, in cents
+	private final long[] bucketBounds;
+
+	private final LongAdder[] bucketCounts;
+
+	private final LongAdder count = new LongAdder();
+
+	private final LongAdder totalCents = new LongAdder();
+
+	// Last known price per product until the build completes, then null
+	private Map<Long, Long> centsById = new ConcurrentHashMap<>();
+
+	// Read-held by events tracked in centsById, write-held to stop tracking
+	private final ReadWriteLock trackingLock = new ReentrantReadWriteLock();
+
+	// Products per distinct price; entries are dropped when they reach zero
+	private final ConcurrentSkipListMap<Long, Long> productsByCents = new ConcurrentSkipListMap<>();
+
+	private final Set<Long> deletedWhileBuilding = ConcurrentHashMap.newKeySet();
+
+	private volatile boolean building;
+
+	private volatile boolean ready;
+
+	public ProductCatalogStats(ProductRepository productRepository,
+			@Value("${app.products.stats.price-buckets:10,50,100,500,1000}") double[] priceBuckets) {
+		this.productRepository = productRepository;
+		this.bucketBounds = Arrays.stream(priceBuckets).mapToLong(ProductCatalogStats::toCents).sorted().distinct()
+				.toArray();
+		this.bucketCounts = new LongAdder[bucketBounds.length + 1];
+		Arrays.setAll(bucketCounts, i -> new LongAdder());
+	}
+
+	@EventListener(ApplicationReadyEvent.class)
+	@Transactional(readOnly = true)
+	public void rebuild() {
+		long start = System.nanoTime();
+		building = true;
+		try (Stream<ProductPrice> prices = productRepository.streamAllPrices()) {
+			prices.forEach(price -> {
+				Long cents = toCents(price.price());
+				if (centsById.putIfAbsent(price.id(), cents) == null) {
+					apply(null, cents);
+					if (deletedWhileBuilding.contains(price.id()) && centsById.remove(price.id(), cents)) {
+						apply(cents, null);
+					}
+				}
+			});
+		} finally {
+			building = false;
+			deletedWhileBuilding.clear();
+		}
+
+		trackingLock.writeLock().lock();
+		try {
+			ready = true;
+			centsById = null;
+		} finally {
+			trackingLock.writeLock().unlock();
+		}
+		log.info("Product statistics built: {} products in {} ms", count.sum(),
+				(System.nanoTime() - start) / 1_000_000);
+	}
+
+	@TransactionalEventListener(fallbackExecution = true)
+	public void onProductChanged(ProductChangedEvent event) {
+		if (!ready) {
+			trackingLock.readLock().lock();
+			try {
+				if (!ready) {
+					track(event);
+					return;
+				}
+			} finally {
+				trackingLock.readLock().unlock();
+			}
+		}
+
+		Long previous = event.previousPrice() != null ? toCents(event.previousPrice()) : null;
+		Long cents = event.type() != ProductChangedEvent.Type.DELETED ? toCents(event.product().getPrice()) : null;
+		if (!Objects.equals(previous, cents)) {
+			apply(previous, cents);
+		}
+	}
+
+	private void track(ProductChangedEvent event) {
+		if (event.type() == ProductChangedEvent.Type.DELETED) {
+			if (building) {
+				deletedWhileBuilding.add(event.id());
+			}
+			apply(centsById.remove(event.id()), null);
+		} else {
+			Long cents = toCents(event.product().getPrice());
+			Long previous = centsById.put(event.id(), cents);
+			if (!Objects.equals(previous, cents)) {
+				apply(previous, cents);
+			}
+		}
+	}
+
+	public ProductStats snapshot() {
+		if (!ready) {
+			throw new ServiceUnavailableException("Product statistics are still being built");
+		}
+		List<ProductStats.PriceBucket> buckets = new ArrayList<>(bucketCounts.length);
+		for (int i = 0; i < bucketCounts.length; i++) {
+			buckets.add(new ProductStats.PriceBucket(i == 0 ? 0 : toPrice(bucketBounds[i - 1]),
+					i < bucketBounds.length ? toPrice(bucketBounds[i]) : null, bucketCounts[i].sum()));
+		}
+		long products = count.sum();
+		Long min = firstHeld(productsByCents);
+		Long max = firstHeld(productsByCents.descendingMap());
+		if (products <= 0 || min == null || max == null) {
+			return new ProductStats(0, null, null, null, buckets);
+		}
+		double average = Math.round((double) totalCents.sum() / products) / 100.0;
+		return new ProductStats(products, toPrice(min), toPrice(max), average, buckets);
+	}
+
+	private void apply(Long previousCents, Long cents) {
+		if (previousCents != null) {
+			count.decrement();
+			totalCents.add(-previousCents);
+			bucketCounts[bucket(previousCents)].decrement();
+			adjust(previousCents, -1);
+		}
+		if (cents != null) {
+			count.increment();
+			totalCents.add(cents);
+			bucketCounts[bucket(cents)].increment();
+			adjust(cents, 1);
+		}
+	}
+
+	// First price in iteration order that some product holds. Prices with a
+	// count of zero or less are skipped, so min and max are always real prices.
+	private static Long firstHeld(NavigableMap<Long, Long> counts) {
+		for (Map.Entry<Long, Long> entry : counts.entrySet()) {
+			if (entry.getValue() > 0) {
+				return entry.getKey();
+			}
+		}
+		return null;
+	}
+
+	// Concurrent transitions of one id may apply out of order, so a count can
+	// briefly go negative before its matching increment lands; snapshots skip
+	// such prices
+	private void adjust(long cents, long delta) {
+		productsByCents.compute(cents, (key, products) -> {
+			long next = (products != null ? products : 0) + delta;
+			return next != 0 ? next : null;
+		});
+	}
+
+	private int bucket(long cents) {
+		int index = Arrays.binarySearch(bucketBounds, cents);
+		return index >= 0 ? index + 1 : -index - 1;
+	}
+
+	private static long toCents(double price) {
+		return Math.round(price * 100);
+	}
+
+	private static double toPrice(long cents) {
+		return cents / 100.0;
+	}
+
+}
@@ -0,0 +1,183 @@
+package io.vgrente.spring.aot.demo.service;
+
+import java.io.IOException;
+import java.time.Duration;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Locale;
+import java.util.concurrent.ThreadFactory;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.locks.Condition;
+import java.util.concurrent.locks.ReentrantLock;
+
+import io.micrometer.core.instrument.Gauge;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.vgrente.spring.aot.demo.event.ProductChangedEvent;
+import tools.jackson.databind.ObjectMapper;
+
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.http.MediaType;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.event.TransactionalEventListener;
+import org.springframework.web.servlet.mvc.method.annotation.SseEmitter;
+
+/**
+ * Server-Sent Events feed of committed product changes. Every change gets the
+ * next sequence number, is serialized once, and is kept in a bounded ring
+ * buffer so clients can resume from {@code Last-Event-ID}.
+ * <p>
+ * Writers only append under a short lock and signal. Each subscriber is
+ * drained by its own virtual thread that copies pending changes under the lock
+ * and sends them outside it, so a slow socket only stalls its own thread. A
+ * subscriber that falls further behind than the buffer holds, or resumes from
+ * an unknown id, receives a {@value #RESET_EVENT} event and should reload the
+ * catalog before applying further changes.
+ */
+@Service
+public class ProductChangeFeed {
+
+	static final String RESET_EVENT = "reset";
+
+	private static final int MAX_BATCH = 256;
+
+	private final ObjectMapper objectMapper;
+
+	private final Change[] ring;
+
+	private final ReentrantLock lock = new ReentrantLock();
+
+	private final Condition appended = lock.newCondition();
+
+	private final ThreadFactory subscriberThreads = Thread.ofVirtual().name("product-changes-", 0).factory();
+
+	private final AtomicInteger subscribers = new AtomicInteger();
+
+	private final Duration heartbeat;
+
+	private final Duration timeout;
+
+	// Sequence of the most recent change; 0 before the first one
+	private long last;
+
+	public ProductChangeFeed(ObjectMapper objectMapper, MeterRegistry meterRegistry,
+			@Value("${app.products.changes.buffer-size:10000}") int bufferSize,
+			@Value("${app.products.changes.heartbeat:15s}") Duration heartbeat,
+			@Value("${app.products.changes.timeout:30m}") Duration timeout) {
+		this.objectMapper = objectMapper;
+		this.ring = new Change[bufferSize];
+		this.heartbeat = heartbeat;
+		this.timeout = timeout;
+		Gauge.builder("products.changes.subscribers", subscribers, AtomicInteger::get)
+				.description("Open product change feed subscriptions").register(meterRegistry);
+	}
+
+	/**
+	 * One committed change, with its JSON payload encoded once for every
+	 * subscriber.
+	 */
+	record Change(long sequence, String name, String data) {
+	}
+
+	/**
+	 * Changes after {@code after}. {@code behind} is set when some of them have
+	 * already been overwritten or {@code after} is ahead of the feed.
+	 */
+	record Batch(List<Change> changes, long last, boolean behind) {
+	}
+
+	@TransactionalEventListener(fallbackExecution = true)
+	public void onProductChanged(ProductChangedEvent event) {
+		String data = objectMapper.writeValueAsString(event);
+		String name = event.type().name().toLowerCase(Locale.ROOT);
+		lock.lock();
+		try {
+			long sequence = ++last;
+			ring[(int) (sequence % ring.length)] = new Change(sequence, name, data);
+			appended.signalAll();
+		} finally {
+			lock.unlock();
+		}
+	}
+
+	/**
+	 * Waits up to {@code maxWait} for changes after {@code after} and returns
+	 * at most {@value #MAX_BATCH} of them.
+	 */
+	Batch awaitAfter(long after, Duration maxWait) throws InterruptedException {
+		lock.lock();
+		try {
+			long nanos = maxWait.toNanos();
+			while (last == after && nanos > 0) {
+				nanos = appended.awaitNanos(nanos);
+			}
+			long oldest = Math.max(1, last - ring.length + 1);
+			if (after > last || after + 1 < oldest) {
+				return new Batch(List.of(), last, true);
+			}
+			int count = (int) Math.min(last - after, MAX_BATCH);
+			List<Change> changes = new ArrayList<>(count);
+			for (long sequence = after + 1; sequence <= after + count; sequence++) {
+				changes.add(ring[(int) (sequence % ring.length)]);
+			}
+			return new Batch(changes, last, false);
+		} finally {
+			lock.unlock();
+		}
+	}
+
+	long lastSequence() {
+		lock.lock();
+		try {
+			return last;
+		} finally {
+			lock.unlock();
+		}
+	}
+
+	/**
+	 * Opens a subscription that starts after {@code lastEventId}, or with the
+	 * next change when it is {@code null}.
+	 */
+	public SseEmitter subscribe(Long lastEventId) {
+		SseEmitter emitter = new SseEmitter(timeout.toMillis());
+		long start = lastEventId != null ? lastEventId : lastSequence();
+		Thread delivery = subscriberThreads.newThread(() -> deliver(emitter, start));
+		Runnable stop = delivery::interrupt;
+		emitter.onCompletion(stop);
+		emitter.onTimeout(stop);
+		emitter.onError(error -> stop.run());
+		delivery.start();
+		return emitter;
+	}
+
+	private void deliver(SseEmitter emitter, long after) {
+		subscribers.incrementAndGet();
+		try {
+			long cursor = after;
+			while (!Thread.currentThread().isInterrupted()) {
+				Batch batch = awaitAfter(cursor, heartbeat);
+				if (batch.behind()) {
+					emitter.send(SseEmitter.event().id(Long.toString(batch.last())).name(RESET_EVENT).data(""));
+					cursor = batch.last();
+				} else if (batch.changes().isEmpty()) {
+					// Detects closed connections and keeps idle proxies from timing out
+					emitter.send(SseEmitter.event().comment("heartbeat"));
+				} else {
+					for (Change change : batch.changes()) {
+						emitter.send(SseEmitter.event().id(Long.toString(change.sequence())).name(change.name())
+								.data(change.data(), MediaType.APPLICATION_JSON));
+					}
+					cursor = batch.changes().getLast().sequence();
+				}
+			}
+		} catch (InterruptedException ex) {
+			Thread.currentThread().interrupt();
+		} catch (IOException | IllegalStateException ex) {
+			// Client disconnected or the emitter completed
+			emitter.completeWithError(ex);
+		} finally {
+			subscribers.decrementAndGet();
+		}
+	}
+
+}
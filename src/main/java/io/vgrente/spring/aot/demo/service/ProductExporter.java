@@ -0,0 +1,67 @@
+package io.vgrente.spring.aot.demo.service;
+
+import java.io.OutputStream;
+import java.util.Iterator;
+import java.util.stream.Stream;
+
+import io.vgrente.spring.aot.demo.model.Product;
+import io.vgrente.spring.aot.demo.repository.ProductRepository;
+import jakarta.persistence.EntityManager;
+import tools.jackson.core.JsonGenerator;
+import tools.jackson.databind.ObjectMapper;
+import tools.jackson.databind.ObjectWriter;
+import tools.jackson.databind.SerializationFeature;
+
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.annotation.Transactional;
+
+/**
+ * Streams the whole product catalog as newline-delimited JSON. Rows are read
+ * through a forward-only database cursor and the persistence context is
+ * cleared periodically, so memory stays flat regardless of the table size.
+ * Rows are not flushed one by one; the generator's buffer is flushed every
+ * {@value #CLEAR_INTERVAL} rows, so the servlet stream (and gzip) sees large
+ * writes.
+ */
+@Service
+public class ProductExporter {
+
+	static final int CLEAR_INTERVAL = 500;
+
+	private final ProductRepository productRepository;
+
+	private final EntityManager entityManager;
+
+	private final ObjectMapper objectMapper;
+
+	private final ObjectWriter productWriter;
+
+	public ProductExporter(ProductRepository productRepository, EntityManager entityManager,
+			ObjectMapper objectMapper) {
+		this.productRepository = productRepository;
+		this.entityManager = entityManager;
+		this.objectMapper = objectMapper;
+		this.productWriter = objectMapper.writerFor(Product.class)
+				.without(SerializationFeature.FLUSH_AFTER_WRITE_VALUE);
+	}
+
+	@Transactional(readOnly = true)
+	public long export(OutputStream out) {
+		long count = 0;
+		try (Stream<Product> products = productRepository.streamAllByOrderByIdAsc();
+				JsonGenerator generator = objectMapper.createGenerator(out)) {
+			Iterator<Product> iterator = products.iterator();
+			while (iterator.hasNext()) {
+				productWriter.writeValue(generator, iterator.next());
+				generator.writeRaw('\n');
+
+				if (++count % CLEAR_INTERVAL == 0) {
+					generator.flush();
+					entityManager.clear();
+				}
+			}
+		}
+		return count;
+	}
+
+}
@@ -0,0 +1,172 @@
+package io.vgrente.spring.aot.demo.service;
+
+import java.util.Comparator;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Locale;
+import java.util.Map;
+import java.util.Optional;
+import java.util.function.Function;
+
+import io.vgrente.spring.aot.demo.event.ProductChangedEvent;
+import io.vgrente.spring.aot.demo.model.Product;
+import io.vgrente.spring.aot.demo.model.ProductDetail;
+import io.vgrente.spring.aot.demo.model.ProductSummary;
+import io.vgrente.spring.aot.demo.repository.ProductRepository;
+
+import org.springframework.cache.Cache;
+import org.springframework.cache.CacheManager;
+import org.springframework.cache.annotation.Cacheable;
+import org.springframework.data.domain.Limit;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.event.TransactionalEventListener;
+
+/**
+ * Read-through cache in front of {@link ProductRepository} lookups. Cache size
+ * and TTL are configured through {@code spring.cache.caffeine.spec}; entries
+ * are evicted once a write to the same product has committed.
+ * <p>
+ * Identical concurrent reads share one query: the cache loads a missing
+ * product once, and uncached projection reads and searches go through
+ * {@link SingleFlight}, keyed by id or by case-folded term and limit. Committed
+ * writes drop in-flight searches and in-flight reads of the same id.
+ */
+@Service
+public class ProductQueryService {
+
+	public static final String PRODUCTS_CACHE = "products";
+
+	private final ProductRepository productRepository;
+
+	private final ProductSearchIndex searchIndex;
+
+	private final Cache productsCache;
+
+	private final SingleFlight<Long, Optional<ProductSummary>> summaryFlights = new SingleFlight<>();
+
+	private final SingleFlight<SearchKey, List<Product>> searchFlights = new SingleFlight<>();
+
+	private final SingleFlight<SearchKey, List<ProductSummary>> summarySearchFlights = new SingleFlight<>();
+
+	private final SingleFlight<Long, Optional<ProductDetail>> detailFlights = new SingleFlight<>();
+
+	private final SingleFlight<SearchKey, List<ProductDetail>> detailSearchFlights = new SingleFlight<>();
+
+	public ProductQueryService(ProductRepository productRepository, ProductSearchIndex searchIndex,
+			CacheManager cacheManager) {
+		this.productRepository = productRepository;
+		this.searchIndex = searchIndex;
+		this.productsCache = cacheManager.getCache(PRODUCTS_CACHE);
+	}
+
+	// sync loads a missing key once; hits never take a lock. Missing ids are
+	// cached too, which is safe because creations also evict.
+	@Cacheable(cacheNames = PRODUCTS_CACHE, key = "#id", sync = true)
+	public Optional<Product> findById(Long id) {
+		return productRepository.findById(id);
+	}
+
+	/**
+	 * Projection of a product for sparse reads. A cached entity is reused,
+	 * otherwise only the summary columns are selected and nothing is cached.
+	 */
+	public Optional<ProductSummary> findSummaryById(Long id) {
+		Cache.ValueWrapper cached = productsCache.get(id);
+		if (cached != null) {
+			return Optional.ofNullable((Product) cached.get()).map(ProductSummary::of);
+		}
+		return summaryFlights.load(id, () -> productRepository.findSummaryById(id));
+	}
+
+	/**
+	 * Same as {@link #findSummaryById(Long)}, with every column.
+	 */
+	public Optional<ProductDetail> findDetailById(Long id) {
+		Cache.ValueWrapper cached = productsCache.get(id);
+		if (cached != null) {
+			return Optional.ofNullable((Product) cached.get()).map(ProductDetail::of);
+		}
+		return detailFlights.load(id, () -> productRepository.findDetailById(id));
+	}
+
+	/**
+	 * Ranked substring search on product names. Matching ids come from the
+	 * in-memory trigram index and only those rows are read from the database.
+	 */
+	public List<Product> searchByName(String name, int limit) {
+		return searchFlights.load(SearchKey.of(name, limit), () -> loadByName(name, limit));
+	}
+
+	private List<Product> loadByName(String name, int limit) {
+		if (!searchIndex.isReady()) {
+			return productRepository.findByNameContainingIgnoreCase(name, Limit.of(limit));
+		}
+
+		List<Long> ids = searchIndex.search(name, limit);
+		return ids.isEmpty() ? List.of() : inRankOrder(ids, productRepository.findAllById(ids), Product::getId);
+	}
+
+	/**
+	 * Same as {@link #searchByName(String, int)}, reading summary projections.
+	 */
+	public List<ProductSummary> searchSummariesByName(String name, int limit) {
+		return summarySearchFlights.load(SearchKey.of(name, limit), () -> loadSummariesByName(name, limit));
+	}
+
+	private List<ProductSummary> loadSummariesByName(String name, int limit) {
+		if (!searchIndex.isReady()) {
+			return productRepository.findSummariesByNameContainingIgnoreCase(name, Limit.of(limit));
+		}
+
+		List<Long> ids = searchIndex.search(name, limit);
+		return ids.isEmpty() ? List.of()
+				: inRankOrder(ids, productRepository.findSummariesByIdIn(ids), ProductSummary::id);
+	}
+
+	/**
+	 * Same as {@link #searchByName(String, int)}, reading full-column
+	 * projections.
+	 */
+	public List<ProductDetail> searchDetailsByName(String name, int limit) {
+		return detailSearchFlights.load(SearchKey.of(name, limit), () -> loadDetailsByName(name, limit));
+	}
+
+	private List<ProductDetail> loadDetailsByName(String name, int limit) {
+		if (!searchIndex.isReady()) {
+			return productRepository.findDetailsByNameContainingIgnoreCase(name, Limit.of(limit));
+		}
+
+		List<Long> ids = searchIndex.search(name, limit);
+		return ids.isEmpty() ? List.of()
+				: inRankOrder(ids, productRepository.findDetailsByIdIn(ids), ProductDetail::id);
+	}
+
+	private static <T> List<T> inRankOrder(List<Long> ids, List<T> rows, Function<T, Long> idOf) {
+		Map<Long, Integer> rank = new HashMap<>(ids.size() * 2);
+		for (int i = 0; i < ids.size(); i++) {
+			rank.put(ids.get(i), i);
+		}
+		return rows.stream().sorted(Comparator.comparing(row -> rank.get(idOf.apply(row)))).toList();
+	}
+
+	// Both searches are case-insensitive, so terms differing only in case share
+	// a result
+	private record SearchKey(String term, int limit) {
+
+		static SearchKey of(String name, int limit) {
+			return new SearchKey(name.toLowerCase(Locale.ROOT), limit);
+		}
+
+	}
+
+	@TransactionalEventListener(fallbackExecution = true)
+	public void onProductChanged(ProductChangedEvent event) {
+		productsCache.evict(event.id());
+		summaryFlights.forget(event.id());
+		detailFlights.forget(event.id());
+		searchFlights.forgetAll();
+		summarySearchFlights.forgetAll();
+		detailSearchFlights.forgetAll();
+	}
+
+}
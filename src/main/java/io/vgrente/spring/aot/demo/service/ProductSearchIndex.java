@@ -0,0 +1,89 @@
+package io.vgrente.spring.aot.demo.service;
+
+import java.util.List;
+import java.util.concurrent.locks.ReadWriteLock;
+import java.util.concurrent.locks.ReentrantReadWriteLock;
+import java.util.stream.Stream;
+
+import io.vgrente.spring.aot.demo.event.ProductChangedEvent;
+import io.vgrente.spring.aot.demo.model.ProductName;
+import io.vgrente.spring.aot.demo.repository.ProductRepository;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+import org.springframework.boot.context.event.ApplicationReadyEvent;
+import org.springframework.context.event.EventListener;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.annotation.Transactional;
+import org.springframework.transaction.event.TransactionalEventListener;
+
+/**
+ * Trigram index over product names, built once the application is ready and
+ * kept up to date from {@link ProductChangedEvent}s. Searches share a read lock
+ * and only writes take the write lock.
+ */
+@Service
+public class ProductSearchIndex {
+
+	private static final Logger log = LoggerFactory.getLogger(ProductSearchIndex.class);
+
+	private final ProductRepository productRepository;
+
+	private final TrigramIndex index = new TrigramIndex();
+
+	private final ReadWriteLock lock = new ReentrantReadWriteLock();
+
+	private volatile boolean ready;
+
+	public ProductSearchIndex(ProductRepository productRepository) {
+		this.productRepository = productRepository;
+	}
+
+	@EventListener(ApplicationReadyEvent.class)
+	@Transactional(readOnly = true)
+	public void rebuild() {
+		long start = System.nanoTime();
+		lock.writeLock().lock();
+		try (Stream<ProductName> names = productRepository.streamAllNames()) {
+			index.clear();
+			names.forEach(name -> index.add(name.id(), name.name()));
+			ready = true;
+		} finally {
+			lock.writeLock().unlock();
+		}
+		log.info("Product search index built: {} products in {} ms", index.size(),
+				(System.nanoTime() - start) / 1_000_000);
+	}
+
+	@TransactionalEventListener(fallbackExecution = true)
+	public void onProductChanged(ProductChangedEvent event) {
+		lock.writeLock().lock();
+		try {
+			if (event.type() == ProductChangedEvent.Type.DELETED) {
+				index.remove(event.id());
+			} else {
+				index.add(event.id(), event.product().getName());
+			}
+		} finally {
+			lock.writeLock().unlock();
+		}
+	}
+
+	/**
+	 * Whether the initial build has completed. Until then callers should fall
+	 * back to querying the database.
+	 */
+	public boolean isReady() {
+		return ready;
+	}
+
+	public List<Long> search(String query, int limit) {
+		lock.readLock().lock();
+		try {
+			return index.search(query, limit);
+		} finally {
+			lock.readLock().unlock();
+		}
+	}
+
+}
@@ -0,0 +1,751 @@
+package io.vgrente.spring.aot.demo.service;
+
+import java.io.IOException;
+import java.io.UncheckedIOException;
+import java.nio.ByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardCopyOption;
+import java.nio.file.StandardOpenOption;
+import java.time.Duration;
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Objects;
+import java.util.Queue;
+import java.util.Set;
+import java.util.concurrent.ConcurrentLinkedQueue;
+import java.util.concurrent.Semaphore;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.locks.Condition;
+import java.util.concurrent.locks.LockSupport;
+import java.util.concurrent.locks.ReentrantLock;
+import java.util.function.Function;
+import java.util.stream.Collectors;
+
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.Gauge;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.vgrente.spring.aot.demo.event.ProductChangedEvent;
+import io.vgrente.spring.aot.demo.exception.ServiceUnavailableException;
+import io.vgrente.spring.aot.demo.exception.ValidationException;
+import io.vgrente.spring.aot.demo.model.Product;
+import io.vgrente.spring.aot.demo.model.ProductDetail;
+import io.vgrente.spring.aot.demo.repository.ProductRepository;
+import jakarta.persistence.EntityManager;
+import jakarta.validation.ConstraintViolation;
+import jakarta.validation.Validator;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import tools.jackson.core.JacksonException;
+import tools.jackson.databind.ObjectMapper;
+
+import org.springframework.aot.hint.annotation.RegisterReflectionForBinding;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.context.ApplicationEventPublisher;
+import org.springframework.context.SmartLifecycle;
+import org.springframework.dao.DataIntegrityViolationException;
+import org.springframework.dao.NonTransientDataAccessException;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.support.TransactionTemplate;
+import org.springframework.util.unit.DataSize;
+
+/**
+ * Opt-in write-behind for single-product creates, replacements and deletions
+ * ({@code app.products.write-behind.enabled}). A write is acknowledged once it
+ * is in a local append-only log and forced to disk. A background writer then
+ * applies queued writes to the database in one transaction per group of up to
+ * {@code batch-size}, at least every {@code flush-interval}, so a burst pays
+ * for one commit per group instead of one per request.
+ * <p>
+ * Log appends are group-committed too: one {@code force} covers every entry
+ * appended while the previous one ran. At most {@code queue-capacity} writes
+ * may be pending. Beyond that, callers wait up to {@code queue-timeout} and
+ * then get a 503.
+ * <p>
+ * Every line carries a sequence number. After each group commit the last
+ * applied sequence is forced to a checkpoint file next to the log. The log is
+ * then truncated if the database has caught up. Otherwise, once it exceeds
+ * {@code max-log-size}, it is rotated, and the rotated segment is deleted when
+ * the checkpoint passes its end. On start, entries after the checkpoint are
+ * replayed, so acknowledged writes survive a crash. Waiters of
+ * {@link #awaitFlushed()} are only released once the checkpoint covers their
+ * entries, so a replay never overwrites a later synchronous write. A
+ * replayed create whose row already exists with the same values is skipped,
+ * one that finds different values is a conflict and goes to the dead-letter
+ * file. {@code product_seq} is then moved past the replayed ids, which a
+ * database that lost the sequence could otherwise hand out again.
+ * <p>
+ * Entries are validated before they are logged. When the database still
+ * rejects one, its group is applied entry by entry so the others go through,
+ * and after {@code max-attempts} the rejected entry is moved to the
+ * {@code dead-letter} file instead of blocking the queue.
+ * <p>
+ * Reads do not see pending writes, and a replacement or deletion of an unknown
+ * id is accepted and then does nothing. Writes that depend on the current
+ * state (conditional requests, patches, batches) call {@link #awaitFlushed()}
+ * first, so they apply after every acknowledged write. The writes bypass
+ * entity callbacks, so their {@link ProductChangedEvent}s are published here.
+ */
+@Service
+@RegisterReflectionForBinding(ProductWriteBehind.Entry.class)
+public class ProductWriteBehind implements SmartLifecycle {
+
+	private static final Logger log = LoggerFactory.getLogger(ProductWriteBehind.class);
+
+	// Must match the allocationSize of the product_seq generator on Product
+	private static final int ID_BLOCK_SIZE = 50;
+
+	private final ProductRepository productRepository;
+
+	private final EntityManager entityManager;
+
+	private final ApplicationEventPublisher eventPublisher;
+
+	private final ProductCacheEviction cacheEviction;
+
+	private final TransactionTemplate transactionTemplate;
+
+	private final ObjectMapper objectMapper;
+
+	private final Validator validator;
+
+	private final boolean enabled;
+
+	private final Path logPath;
+
+	private final Path deadLetterPath;
+
+	private final Path rotatedPath;
+
+	private final Path checkpointPath;
+
+	private final long maxLogSize;
+
+	private final int maxAttempts;
+
+	private final int batchSize;
+
+	private final Duration flushInterval;
+
+	private final Duration queueTimeout;
+
+	private final Semaphore capacity;
+
+	private final Counter deadLetters;
+
+	// Appended entries in sequence order; the writer only takes durable ones
+	private final Queue<Pending> pending = new ConcurrentLinkedQueue<>();
+
+	private final ReentrantLock appendLock = new ReentrantLock();
+
+	private final ReentrantLock syncLock = new ReentrantLock();
+
+	private final ReentrantLock flushLock = new ReentrantLock();
+
+	private final Condition flushed = flushLock.newCondition();
+
+	private final ReentrantLock idLock = new ReentrantLock();
+
+	private long nextId;
+
+	private long lastId = -1;
+
+	private FileChannel channel;
+
+	private FileChannel checkpoint;
+
+	// Last sequence in the rotated segment, 0 when there is none
+	private long rotatedSequence;
+
+	private Thread writer;
+
+	private volatile boolean running;
+
+	private volatile long appendedSequence;
+
+	private volatile long syncedSequence;
+
+	private volatile long flushedSequence;
+
+	// Failed attempts at the head of the queue; only used by the writer
+	private int failures;
+
+	public ProductWriteBehind(ProductRepository productRepository, EntityManager entityManager,
+			ApplicationEventPublisher eventPublisher, ProductCacheEviction cacheEviction,
+			PlatformTransactionManager transactionManager, ObjectMapper objectMapper, Validator validator,
+			MeterRegistry meterRegistry,
+			@Value("${app.products.write-behind.enabled:false}") boolean enabled,
+			@Value("${app.products.write-behind.log:product-writes.log}") Path logPath,
+			@Value("${app.products.write-behind.dead-letter:product-writes.dead}") Path deadLetterPath,
+			@Value("${app.products.write-behind.max-attempts:3}") int maxAttempts,
+			@Value("${app.products.write-behind.max-log-size:16MB}") DataSize maxLogSize,
+			@Value("${app.products.write-behind.batch-size:500}") int batchSize,
+			@Value("${app.products.write-behind.flush-interval:10ms}") Duration flushInterval,
+			@Value("${app.products.write-behind.queue-capacity:10000}") int queueCapacity,
+			@Value("${app.products.write-behind.queue-timeout:1s}") Duration queueTimeout) {
+		this.productRepository = productRepository;
+		this.entityManager = entityManager;
+		this.eventPublisher = eventPublisher;
+		this.cacheEviction = cacheEviction;
+		this.transactionTemplate = new TransactionTemplate(transactionManager);
+		this.objectMapper = objectMapper;
+		this.validator = validator;
+		this.enabled = enabled;
+		this.logPath = logPath;
+		this.deadLetterPath = deadLetterPath;
+		this.maxAttempts = maxAttempts;
+		this.rotatedPath = logPath.resolveSibling(logPath.getFileName() + ".1");
+		this.checkpointPath = logPath.resolveSibling(logPath.getFileName() + ".checkpoint");
+		this.maxLogSize = maxLogSize.toBytes();
+		this.batchSize = batchSize;
+		this.flushInterval = flushInterval;
+		this.queueTimeout = queueTimeout;
+		this.capacity = new Semaphore(queueCapacity);
+		Gauge.builder("products.write-behind.pending", this, writeBehind -> writeBehind.appendedSequence
+				- writeBehind.flushedSequence).description("Acknowledged product writes not yet in the database")
+				.register(meterRegistry);
+		this.deadLetters = Counter.builder("products.write-behind.dead-letters")
+				.description("Product writes the database kept rejecting, moved to the dead-letter file")
+				.register(meterRegistry);
+	}
+
+	/**
+	 * One logged write. {@code name}, {@code price} and {@code description} are
+	 * {@code null} for deletions.
+	 */
+	record Entry(ProductChangedEvent.Type type, Long id, String name, Double price, String description) {
+	}
+
+	private record Pending(long sequence, Entry entry) {
+	}
+
+	public boolean isEnabled() {
+		return enabled;
+	}
+
+	/**
+	 * Logs the creation of a product with a newly reserved id and returns it as
+	 * it will be stored.
+	 */
+	public Product create(Product product) {
+		validate(product);
+		Long id = nextId();
+		append(new Entry(ProductChangedEvent.Type.CREATED, id, product.getName(), product.getPrice(),
+				product.getDescription()));
+		Product created = new Product(product.getName(), product.getPrice(), product.getDescription());
+		created.setId(id);
+		created.setVersion(0L);
+		return created;
+	}
+
+	/**
+	 * Logs the replacement of every writable property. The resulting version is
+	 * only known once the write is applied, so it is left unset.
+	 */
+	public Product replace(Long id, Product product) {
+		validate(product);
+		append(new Entry(ProductChangedEvent.Type.UPDATED, id, product.getName(), product.getPrice(),
+				product.getDescription()));
+		Product replaced = new Product(product.getName(), product.getPrice(), product.getDescription());
+		replaced.setId(id);
+		return replaced;
+	}
+
+	public void delete(Long id) {
+		append(new Entry(ProductChangedEvent.Type.DELETED, id, null, null, null));
+	}
+
+	/**
+	 * Waits until every write acknowledged so far has been committed to the
+	 * database. Returns immediately when write-behind is disabled.
+	 */
+	public void awaitFlushed() {
+		long target = appendedSequence;
+		if (flushedSequence >= target) {
+			return;
+		}
+		LockSupport.unpark(writer);
+		flushLock.lock();
+		try {
+			long nanos = queueTimeout.toNanos();
+			while (flushedSequence < target) {
+				if (nanos <= 0) {
+					throw new ServiceUnavailableException("Pending product writes are not yet applied");
+				}
+				nanos = flushed.awaitNanos(nanos);
+			}
+		} catch (InterruptedException ex) {
+			Thread.currentThread().interrupt();
+			throw new ServiceUnavailableException("Interrupted while waiting for pending product writes");
+		} finally {
+			flushLock.unlock();
+		}
+	}
+
+	// A logged entry must not fail in the database for a reason known up front
+	private void validate(Product product) {
+		Set<ConstraintViolation<Product>> violations = validator.validate(product);
+		if (!violations.isEmpty()) {
+			throw new ValidationException(violations.stream().map(ConstraintViolation::getMessage).sorted()
+					.collect(Collectors.joining(", ")));
+		}
+	}
+
+	private Long nextId() {
+		idLock.lock();
+		try {
+			if (nextId > lastId) {
+				lastId = productRepository.nextIdBlock();
+				nextId = Math.max(1, lastId - ID_BLOCK_SIZE + 1);
+			}
+			return nextId++;
+		} finally {
+			idLock.unlock();
+		}
+	}
+
+	void append(Entry entry) {
+		if (!enabled) {
+			throw new IllegalStateException("Product write-behind is disabled");
+		}
+		try {
+			if (!capacity.tryAcquire(queueTimeout.toNanos(), TimeUnit.NANOSECONDS)) {
+				throw new ServiceUnavailableException("Product write queue is full");
+			}
+		} catch (InterruptedException ex) {
+			Thread.currentThread().interrupt();
+			throw new ServiceUnavailableException("Interrupted while waiting for the product write queue");
+		}
+
+		byte[] json = encode(entry);
+		long sequence;
+		appendLock.lock();
+		try {
+			if (!running) {
+				capacity.release();
+				throw new ServiceUnavailableException("Product writes are not accepted while shutting down");
+			}
+			sequence = appendedSequence + 1;
+			byte[] prefix = (sequence + " ").getBytes(StandardCharsets.US_ASCII);
+			writeFully(channel, ByteBuffer.wrap(prefix), ByteBuffer.wrap(json));
+			pending.add(new Pending(sequence, entry));
+			appendedSequence = sequence;
+		} catch (IOException ex) {
+			capacity.release();
+			throw new UncheckedIOException("Could not append to " + logPath, ex);
+		} finally {
+			appendLock.unlock();
+		}
+
+		sync(sequence);
+		if (sequence - flushedSequence >= batchSize) {
+			LockSupport.unpark(writer);
+		}
+	}
+
+	/**
+	 * Forces the log up to {@code sequence}. Callers that arrive while another
+	 * force is running wait for it, and most find their entry already covered.
+	 */
+	private void sync(long sequence) {
+		if (syncedSequence >= sequence) {
+			return;
+		}
+		syncLock.lock();
+		try {
+			if (syncedSequence >= sequence) {
+				return;
+			}
+			long target = appendedSequence;
+			channel.force(false);
+			syncedSequence = target;
+		} catch (IOException ex) {
+			throw new UncheckedIOException("Could not force " + logPath, ex);
+		} finally {
+			syncLock.unlock();
+		}
+	}
+
+	private void writeLoop() {
+		while (true) {
+			boolean stopping = !running;
+			if (!stopping && syncedSequence - flushedSequence < batchSize) {
+				LockSupport.parkNanos(this, flushInterval.toNanos());
+			}
+			try {
+				if (stopping) {
+					// Writers that appended before the stop may not have forced yet
+					sync(appendedSequence);
+				}
+				while (flush() == batchSize) {
+					// Keep draining full groups
+				}
+			} catch (RuntimeException ex) {
+				// Entries stay queued and logged, the next round retries them
+				log.warn("Could not apply pending product writes, retrying", ex);
+				if (stopping) {
+					return;
+				}
+				LockSupport.parkNanos(this, Math.max(flushInterval.toNanos(), TimeUnit.SECONDS.toNanos(1)));
+				continue;
+			}
+			if (stopping && pending.isEmpty()) {
+				return;
+			}
+		}
+	}
+
+	/**
+	 * Applies the next group of durable entries in one transaction and returns
+	 * its size.
+	 */
+	private int flush() {
+		long synced = syncedSequence;
+		List<Pending> group = new ArrayList<>();
+		for (Pending next : pending) {
+			if (next.sequence() > synced || group.size() == batchSize) {
+				break;
+			}
+			group.add(next);
+		}
+		if (group.isEmpty()) {
+			return 0;
+		}
+
+		try {
+			List<Entry> entries = group.stream().map(Pending::entry).toList();
+			transactionTemplate.executeWithoutResult(status -> apply(entries));
+		} catch (NonTransientDataAccessException ex) {
+			// One rejected entry rolls back its whole group: apply them one by one
+			// so only that entry is held back
+			flushEach(group);
+			return group.size();
+		}
+		completed(group);
+		return group.size();
+	}
+
+	/**
+	 * Applies each entry in its own transaction. A rejected entry is retried on
+	 * the next rounds, then moved to the dead-letter file.
+	 */
+	private void flushEach(List<Pending> group) {
+		for (Pending next : group) {
+			try {
+				transactionTemplate.executeWithoutResult(status -> apply(List.of(next.entry())));
+			} catch (NonTransientDataAccessException ex) {
+				if (++failures < maxAttempts) {
+					throw ex;
+				}
+				deadLetter(next.entry(), ex);
+			}
+			completed(List.of(next));
+		}
+	}
+
+	// The checkpoint is forced before waiters are released, so a write that
+	// waited for the flush can never be overwritten by a replay
+	private void completed(List<Pending> group) {
+		long last = group.getLast().sequence();
+		checkpoint(last);
+		for (int i = 0; i < group.size(); i++) {
+			pending.poll();
+		}
+		failures = 0;
+		flushLock.lock();
+		try {
+			flushedSequence = last;
+			flushed.signalAll();
+		} finally {
+			flushLock.unlock();
+		}
+		capacity.release(group.size());
+		compactLog();
+	}
+
+	private void checkpoint(long sequence) {
+		try {
+			checkpoint.write(ByteBuffer.allocate(Long.BYTES).putLong(0, sequence), 0);
+			checkpoint.force(false);
+		} catch (IOException ex) {
+			throw new UncheckedIOException("Could not write " + checkpointPath, ex);
+		}
+	}
+
+	private void deadLetter(Entry entry, RuntimeException ex) {
+		log.error("Moving product write {} to {} after {} failed attempts", entry, deadLetterPath, failures, ex);
+		try (FileChannel deadLetter = FileChannel.open(deadLetterPath, StandardOpenOption.CREATE,
+				StandardOpenOption.WRITE, StandardOpenOption.APPEND)) {
+			writeFully(deadLetter, ByteBuffer.wrap(encode(entry)));
+			deadLetter.force(false);
+		} catch (IOException io) {
+			throw new UncheckedIOException("Could not append to " + deadLetterPath, io);
+		}
+		deadLetters.increment();
+	}
+
+	private void apply(List<Entry> entries) {
+		List<Long> createdIds = entries.stream().filter(entry -> entry.type() == ProductChangedEvent.Type.CREATED)
+				.map(Entry::id).toList();
+		Map<Long, ProductDetail> existing = createdIds.isEmpty() ? new HashMap<>()
+				: productRepository.findDetailsByIdIn(createdIds).stream()
+						.collect(Collectors.toMap(ProductDetail::id, Function.identity()));
+		List<Long> written = new ArrayList<>();
+
+		for (Entry entry : entries) {
+			switch (entry.type()) {
+				case CREATED -> {
+					ProductDetail row = existing.get(entry.id());
+					if (row == null) {
+						productRepository.insertWithId(entry.id(), entry.name(), entry.price(), entry.description());
+						written.add(entry.id());
+						existing.put(entry.id(), new ProductDetail(entry.id(), entry.name(), entry.price(),
+								entry.description(), 0L));
+						eventPublisher.publishEvent(ProductChangedEvent.created(toProduct(entry, 0L)));
+					} else if (!matches(row, entry)) {
+						// Another product got this id, e.g. from a sequence that restarted
+						throw new DataIntegrityViolationException(
+								"Product " + entry.id() + " already exists with different values");
+					}
+					// Otherwise applied before a crash that preceded its checkpoint
+				}
+				case UPDATED -> productRepository
+						.replaceById(entry.id(), entry.name(), entry.price(), entry.description())
+						.ifPresent(previous -> {
+							written.add(entry.id());
+							eventPublisher.publishEvent(ProductChangedEvent
+									.updated(toProduct(entry, previous.getVersion() + 1), previous.getPrice()));
+						});
+				case DELETED -> productRepository.removeById(entry.id()).ifPresent(previous -> {
+					existing.remove(entry.id());
+					written.add(entry.id());
+					eventPublisher.publishEvent(ProductChangedEvent.deleted(entry.id(), previous.getPrice()));
+				});
+			}
+		}
+		cacheEviction.evict(written);
+	}
+
+	private static boolean matches(ProductDetail row, Entry entry) {
+		return Objects.equals(row.name(), entry.name()) && Objects.equals(row.price(), entry.price())
+				&& Objects.equals(row.description(), entry.description());
+	}
+
+	private static Product toProduct(Entry entry, Long version) {
+		Product product = new Product(entry.name(), entry.price(), entry.description());
+		product.setId(entry.id());
+		product.setVersion(version);
+		return product;
+	}
+
+	/**
+	 * Drops log entries the checkpoint covers: the whole log when the database
+	 * has caught up, otherwise the rotated segment once it is fully applied.
+	 * A large log that is still behind is rotated.
+	 */
+	private void compactLog() {
+		appendLock.lock();
+		try {
+			if (rotatedSequence > 0 && flushedSequence >= rotatedSequence) {
+				Files.delete(rotatedPath);
+				rotatedSequence = 0;
+			}
+			if (flushedSequence == appendedSequence) {
+				if (channel.size() > 0) {
+					channel.truncate(0);
+					channel.force(false);
+				}
+			} else if (rotatedSequence == 0 && channel.size() >= maxLogSize) {
+				rotate();
+			}
+		} catch (IOException ex) {
+			// Harmless: replay skips what the checkpoint covers, the next group retries
+			log.warn("Could not compact {}", logPath, ex);
+		} finally {
+			appendLock.unlock();
+		}
+	}
+
+	// Called with the append lock held; the sync lock keeps writers from forcing
+	// the channel while it is swapped
+	private void rotate() throws IOException {
+		syncLock.lock();
+		try {
+			channel.force(false);
+			syncedSequence = appendedSequence;
+			Files.move(logPath, rotatedPath, StandardCopyOption.ATOMIC_MOVE);
+			channel.close();
+			channel = FileChannel.open(logPath, StandardOpenOption.CREATE, StandardOpenOption.WRITE);
+			rotatedSequence = appendedSequence;
+		} finally {
+			syncLock.unlock();
+		}
+	}
+
+	// A JSON line, without the sequence number prefix
+	private byte[] encode(Entry entry) {
+		byte[] json = objectMapper.writeValueAsBytes(entry);
+		byte[] line = new byte[json.length + 1];
+		System.arraycopy(json, 0, line, 0, json.length);
+		line[json.length] = '\n';
+		return line;
+	}
+
+	private static void writeFully(FileChannel channel, ByteBuffer... buffers) throws IOException {
+		for (ByteBuffer buffer : buffers) {
+			while (buffer.hasRemaining()) {
+				channel.write(buffer);
+			}
+		}
+	}
+
+	/**
+	 * Applies the logged entries after the checkpoint, rotated segment first,
+	 * and returns the last sequence seen.
+	 */
+	private long replay(long applied) throws IOException {
+		List<Pending> entries = new ArrayList<>();
+		for (Path path : List.of(rotatedPath, logPath)) {
+			if (!Files.exists(path)) {
+				continue;
+			}
+			for (String line : Files.readAllLines(path, StandardCharsets.UTF_8)) {
+				if (line.isBlank()) {
+					continue;
+				}
+				try {
+					int separator = line.indexOf(' ');
+					long sequence = Long.parseLong(line, 0, separator, 10);
+					if (sequence > applied) {
+						entries.add(new Pending(sequence, objectMapper.readValue(line.substring(separator + 1),
+								Entry.class)));
+					}
+				} catch (JacksonException | IndexOutOfBoundsException | NumberFormatException ex) {
+					// Only the last line can be torn by a crash, and it was never acknowledged
+					log.warn("Ignoring unreadable entry in {}: {}", path, line);
+				}
+			}
+		}
+		for (int from = 0; from < entries.size(); from += batchSize) {
+			replay(entries.subList(from, Math.min(from + batchSize, entries.size())));
+		}
+		entries.stream().map(Pending::entry).filter(entry -> entry.type() == ProductChangedEvent.Type.CREATED)
+				.mapToLong(Entry::id).max().ifPresent(this::reserveIdsUpTo);
+		if (!entries.isEmpty()) {
+			log.info("Replayed {} pending product writes from {}", entries.size(), logPath);
+			return entries.getLast().sequence();
+		}
+		return applied;
+	}
+
+	// Nothing changes between attempts at startup, so a rejected entry goes to
+	// the dead-letter file right away instead of aborting the start
+	private void replay(List<Pending> group) {
+		List<Entry> entries = group.stream().map(Pending::entry).toList();
+		try {
+			transactionTemplate.executeWithoutResult(status -> apply(entries));
+		} catch (NonTransientDataAccessException ex) {
+			for (Entry entry : entries) {
+				try {
+					transactionTemplate.executeWithoutResult(status -> apply(List.of(entry)));
+				} catch (NonTransientDataAccessException rejected) {
+					deadLetter(entry, rejected);
+				}
+			}
+		}
+	}
+
+	/**
+	 * Makes sure the next id block {@code product_seq} hands out starts after
+	 * {@code id}. One block is consumed to read the sequence (H2 syntax).
+	 */
+	private void reserveIdsUpTo(long id) {
+		if (productRepository.nextIdBlock() - ID_BLOCK_SIZE >= id) {
+			return;
+		}
+		transactionTemplate.executeWithoutResult(status -> entityManager
+				.createNativeQuery("ALTER SEQUENCE product_seq RESTART WITH " + (id + ID_BLOCK_SIZE))
+				.executeUpdate());
+		log.info("Moved product_seq past replayed product id {}", id);
+	}
+
+	@Override
+	public void start() {
+		if (!enabled) {
+			return;
+		}
+		try {
+			for (Path path : List.of(logPath, deadLetterPath)) {
+				Path parent = path.toAbsolutePath().getParent();
+				if (parent != null) {
+					Files.createDirectories(parent);
+				}
+			}
+			checkpoint = FileChannel.open(checkpointPath, StandardOpenOption.CREATE, StandardOpenOption.READ,
+					StandardOpenOption.WRITE);
+			ByteBuffer applied = ByteBuffer.allocate(Long.BYTES);
+			checkpoint.read(applied, 0);
+			// Anything left queued by a failed stop is still in the log
+			capacity.release(pending.size());
+			pending.clear();
+			long last = replay(applied.hasRemaining() ? 0 : applied.getLong(0));
+			// Later appends continue the sequence, so the checkpoint stays monotonic
+			checkpoint(last);
+			appendedSequence = last;
+			syncedSequence = last;
+			flushedSequence = last;
+
+			Files.deleteIfExists(rotatedPath);
+			rotatedSequence = 0;
+			channel = FileChannel.open(logPath, StandardOpenOption.CREATE, StandardOpenOption.WRITE);
+			channel.truncate(0);
+			channel.force(false);
+			channel.position(0);
+		} catch (IOException ex) {
+			throw new UncheckedIOException("Could not open product write log " + logPath, ex);
+		}
+		running = true;
+		writer = Thread.ofVirtual().name("product-write-behind").start(this::writeLoop);
+	}
+
+	@Override
+	public void stop() {
+		if (!running) {
+			return;
+		}
+		appendLock.lock();
+		try {
+			running = false;
+		} finally {
+			appendLock.unlock();
+		}
+		LockSupport.unpark(writer);
+		try {
+			writer.join();
+			channel.close();
+			checkpoint.close();
+		} catch (InterruptedException ex) {
+			Thread.currentThread().interrupt();
+		} catch (IOException ex) {
+			log.warn("Could not close {}", logPath, ex);
+		}
+	}
+
+	@Override
+	public boolean isRunning() {
+		return running;
+	}
+
+	// Starts before and stops after the web server, so no request finds it
+	// stopped
+	@Override
+	public int getPhase() {
+		return SmartLifecycle.DEFAULT_PHASE - 4096;
+	}
+
+}
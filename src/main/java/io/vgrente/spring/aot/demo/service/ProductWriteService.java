@@ -0,0 +1,123 @@
+package io.vgrente.spring.aot.demo.service;
+
+import java.util.Optional;
+import java.util.Set;
+
+import io.vgrente.spring.aot.demo.event.ProductChangedEvent;
+import io.vgrente.spring.aot.demo.exception.PreconditionFailedException;
+import io.vgrente.spring.aot.demo.exception.ResourceNotFoundException;
+import io.vgrente.spring.aot.demo.model.Product;
+import io.vgrente.spring.aot.demo.model.ProductPatch;
+import io.vgrente.spring.aot.demo.repository.ProductRepository;
+import io.vgrente.spring.aot.demo.repository.ProductRepository.PreviousState;
+
+import org.springframework.context.ApplicationEventPublisher;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.annotation.Transactional;
+
+/**
+ * Single-product writes with as few database round trips as possible.
+ * Replacements and deletions run as one conditional statement that returns
+ * the row it replaced, which tells whether the product exists and matched the
+ * expected versions, and gives its previous price and version. Only failures
+ * pay for a second query to tell a missing product from a stale version. These
+ * statements bypass entity callbacks, so their {@link ProductChangedEvent}s
+ * are published here.
+ * <p>
+ * {@code expectedVersions} comes from an {@code If-Match} header: {@code null}
+ * accepts any version and an empty set accepts none.
+ */
+@Service
+public class ProductWriteService {
+
+	private final ProductRepository productRepository;
+
+	private final ApplicationEventPublisher eventPublisher;
+
+	private final ProductCacheEviction cacheEviction;
+
+	public ProductWriteService(ProductRepository productRepository, ApplicationEventPublisher eventPublisher,
+			ProductCacheEviction cacheEviction) {
+		this.productRepository = productRepository;
+		this.eventPublisher = eventPublisher;
+		this.cacheEviction = cacheEviction;
+	}
+
+	/**
+	 * Replaces every writable property in one statement; the new version is
+	 * the replaced one plus one.
+	 */
+	@Transactional
+	public Product replace(Long id, Product product, Set<Long> expectedVersions) {
+		Optional<PreviousState> previous;
+		if (expectedVersions == null) {
+			previous = productRepository.replaceById(id, product.getName(), product.getPrice(),
+					product.getDescription());
+		} else if (expectedVersions.isEmpty()) {
+			previous = Optional.empty();
+		} else {
+			previous = productRepository.replaceByIdAndVersionIn(id, expectedVersions, product.getName(),
+					product.getPrice(), product.getDescription());
+		}
+		if (previous.isEmpty()) {
+			if (expectedVersions == null) {
+				throw new ResourceNotFoundException("Product", id);
+			}
+			throw notFoundOrModified(id);
+		}
+		cacheEviction.evict(id);
+
+		Product replaced = new Product(product.getName(), product.getPrice(), product.getDescription());
+		replaced.setId(id);
+		replaced.setVersion(previous.get().getVersion() + 1);
+		eventPublisher.publishEvent(ProductChangedEvent.updated(replaced, previous.get().getPrice()));
+		return replaced;
+	}
+
+	/**
+	 * Applies the supplied properties to the managed product. The flush issues
+	 * one UPDATE of the changed columns, guarded by the version that was read,
+	 * and writes nothing when no value changed.
+	 */
+	@Transactional
+	public Product patch(Long id, ProductPatch patch, Set<Long> expectedVersions) {
+		Product product = productRepository.findById(id)
+				.orElseThrow(() -> new ResourceNotFoundException("Product", id));
+		if (expectedVersions != null && !expectedVersions.contains(product.getVersion())) {
+			throw modified(id, product.getVersion());
+		}
+
+		patch.applyTo(product);
+		productRepository.flush();
+		return product;
+	}
+
+	@Transactional
+	public void delete(Long id, Set<Long> expectedVersions) {
+		Optional<PreviousState> previous;
+		if (expectedVersions == null) {
+			previous = productRepository.removeById(id);
+		} else if (expectedVersions.isEmpty()) {
+			previous = Optional.empty();
+		} else {
+			previous = productRepository.removeByIdAndVersionIn(id, expectedVersions);
+		}
+		if (previous.isEmpty()) {
+			throw notFoundOrModified(id);
+		}
+		cacheEviction.evict(id);
+
+		eventPublisher.publishEvent(ProductChangedEvent.deleted(id, previous.get().getPrice()));
+	}
+
+	private RuntimeException notFoundOrModified(Long id) {
+		return productRepository.findVersionById(id).<RuntimeException>map(version -> modified(id, version))
+				.orElseGet(() -> new ResourceNotFoundException("Product", id));
+	}
+
+	private static PreconditionFailedException modified(Long id, Long version) {
+		return new PreconditionFailedException(
+				String.format("Product %d has been modified, current ETag is \"%d\"", id, version));
+	}
+
+}
@@ -0,0 +1,66 @@
+package io.vgrente.spring.aot.demo.service;
+
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CompletionException;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.function.Supplier;
+
+import org.springframework.transaction.support.TransactionSynchronizationManager;
+
+/**
+ * Lets concurrent callers with the same key share one in-flight load: the
+ * first caller runs it, later ones wait for its result. Nothing is kept once
+ * the load completes, so this only removes duplicate work that overlaps in
+ * time.
+ * <p>
+ * A committed write must {@link #forget} the keys it affects, so callers that
+ * arrive after it start a fresh load instead of joining one that may have read
+ * the old state. Callers inside a transaction never share loads, since their
+ * reads can see uncommitted changes of their own.
+ */
+final class SingleFlight<K, V> {
+
+	private final ConcurrentHashMap<K, CompletableFuture<V>> flights = new ConcurrentHashMap<>();
+
+	V load(K key, Supplier<V> loader) {
+		if (TransactionSynchronizationManager.isActualTransactionActive()) {
+			return loader.get();
+		}
+
+		CompletableFuture<V> flight = new CompletableFuture<>();
+		CompletableFuture<V> leader = flights.putIfAbsent(key, flight);
+		if (leader != null) {
+			return join(leader);
+		}
+		try {
+			V value = loader.get();
+			flight.complete(value);
+			return value;
+		} catch (RuntimeException | Error ex) {
+			flight.completeExceptionally(ex);
+			throw ex;
+		} finally {
+			flights.remove(key, flight);
+		}
+	}
+
+	void forget(K key) {
+		flights.remove(key);
+	}
+
+	void forgetAll() {
+		flights.clear();
+	}
+
+	private static <V> V join(CompletableFuture<V> flight) {
+		try {
+			return flight.join();
+		} catch (CompletionException ex) {
+			if (ex.getCause() instanceof RuntimeException cause) {
+				throw cause;
+			}
+			throw ex;
+		}
+	}
+
+}
@@ -0,0 +1,206 @@
+package io.vgrente.spring.aot.demo.service;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Comparator;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Locale;
+import java.util.Map;
+import java.util.PriorityQueue;
+
+/**
+ * In-memory trigram index answering case-insensitive substring queries. Each
+ * trigram maps to a sorted posting list of ids; a query intersects the posting
+ * lists of its trigrams and verifies the remaining candidates. Not thread-safe,
+ * callers must synchronize access.
+ */
+public class TrigramIndex {
+
+	static final int GRAM_LENGTH = 3;
+
+	private static final Comparator<Match> BEST_FIRST = Comparator.comparingInt(Match::score)
+			.thenComparingInt(Match::length).thenComparingLong(Match::id);
+
+	private final Map<Long, String> terms = new HashMap<>();
+
+	private final Map<Long, Postings> postings = new HashMap<>();
+
+	public void add(long id, String text) {
+		remove(id);
+		String term = normalize(text);
+		terms.put(id, term);
+		for (int i = 0; i + GRAM_LENGTH <= term.length(); i++) {
+			postings.computeIfAbsent(trigram(term, i), key -> new Postings()).add(id);
+		}
+	}
+
+	public void remove(long id) {
+		String term = terms.remove(id);
+		if (term == null) {
+			return;
+		}
+		for (int i = 0; i + GRAM_LENGTH <= term.length(); i++) {
+			long key = trigram(term, i);
+			Postings ids = postings.get(key);
+			if (ids != null && ids.remove(id) && ids.isEmpty()) {
+				postings.remove(key);
+			}
+		}
+	}
+
+	public void clear() {
+		terms.clear();
+		postings.clear();
+	}
+
+	public int size() {
+		return terms.size();
+	}
+
+	/**
+	 * Returns the ids of the best matching entries, best first: exact matches,
+	 * then prefix matches, then matches at a word start, then any other
+	 * substring match. Ties go to the shorter text, then the lower id.
+	 */
+	public List<Long> search(String query, int limit) {
+		String term = normalize(query);
+		PriorityQueue<Match> best = new PriorityQueue<>(limit + 1, BEST_FIRST.reversed());
+
+		if (term.length() < GRAM_LENGTH) {
+			// Too short to use trigrams, fall back to scanning the in-memory terms
+			terms.forEach((id, text) -> offer(best, id, text, term, limit));
+		} else {
+			for (long id : candidates(term)) {
+				offer(best, id, terms.get(id), term, limit);
+			}
+		}
+
+		List<Match> matches = new ArrayList<>(best);
+		matches.sort(BEST_FIRST);
+		return matches.stream().map(Match::id).toList();
+	}
+
+	private long[] candidates(String term) {
+		List<Postings> lists = new ArrayList<>();
+		for (int i = 0; i + GRAM_LENGTH <= term.length(); i++) {
+			Postings ids = postings.get(trigram(term, i));
+			if (ids == null) {
+				return new long[0];
+			}
+			lists.add(ids);
+		}
+		lists.sort(Comparator.comparingInt(Postings::size));
+
+		// Intersect starting from the rarest trigram
+		Postings smallest = lists.getFirst();
+		long[] result = Arrays.copyOf(smallest.ids, smallest.size);
+		int count = result.length;
+		for (int j = 1; j < lists.size() && count > 0; j++) {
+			count = lists.get(j).retainAll(result, count);
+		}
+		return Arrays.copyOf(result, count);
+	}
+
+	private static void offer(PriorityQueue<Match> best, long id, String text, String term, int limit) {
+		int position = text.indexOf(term);
+		if (position < 0) {
+			return;
+		}
+		best.offer(new Match(id, score(text, term, position), text.length()));
+		if (best.size() > limit) {
+			best.poll();
+		}
+	}
+
+	private static int score(String text, String term, int position) {
+		if (position == 0) {
+			return text.length() == term.length() ? 0 : 1;
+		}
+		return Character.isLetterOrDigit(text.charAt(position - 1)) ? 3 : 2;
+	}
+
+	static String normalize(String text) {
+		return text == null ? "" : text.toLowerCase(Locale.ROOT);
+	}
+
+	private static long trigram(String term, int offset) {
+		return ((long) term.charAt(offset) << 32) | ((long) term.charAt(offset + 1) << 16) | term.charAt(offset + 2);
+	}
+
+	private record Match(long id, int score, int length) {
+	}
+
+	/**
+	 * Sorted, growable array of ids. Ids are mostly added in increasing order, so
+	 * inserts are usually appends.
+	 */
+	private static final class Postings {
+
+		private long[] ids = new long[4];
+
+		private int size;
+
+		void add(long id) {
+			if (size == 0 || id > ids[size - 1]) {
+				ensureCapacity();
+				ids[size++] = id;
+				return;
+			}
+			int index = Arrays.binarySearch(ids, 0, size, id);
+			if (index >= 0) {
+				return;
+			}
+			int insertAt = -index - 1;
+			ensureCapacity();
+			System.arraycopy(ids, insertAt, ids, insertAt + 1, size - insertAt);
+			ids[insertAt] = id;
+			size++;
+		}
+
+		boolean remove(long id) {
+			int index = Arrays.binarySearch(ids, 0, size, id);
+			if (index < 0) {
+				return false;
+			}
+			System.arraycopy(ids, index + 1, ids, index, size - index - 1);
+			size--;
+			return true;
+		}
+
+		/**
+		 * Keeps the first {@code count} entries of the sorted {@code candidates}
+		 * array that are also in this list and returns how many remain.
+		 */
+		int retainAll(long[] candidates, int count) {
+			int kept = 0;
+			int position = 0;
+			for (int i = 0; i < count && position < size; i++) {
+				long id = candidates[i];
+				while (position < size && ids[position] < id) {
+					position++;
+				}
+				if (position < size && ids[position] == id) {
+					candidates[kept++] = id;
+				}
+			}
+			return kept;
+		}
+
+		int size() {
+			return size;
+		}
+
+		boolean isEmpty() {
+			return size == 0;
+		}
+
+		private void ensureCapacity() {
+			if (size == ids.length) {
+				ids = Arrays.copyOf(ids, size + (size >> 1) + 1);
+			}
+		}
+
+	}
+
+}
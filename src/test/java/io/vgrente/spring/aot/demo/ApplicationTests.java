@@ -1,13 +1,29 @@
 package io.vgrente.spring.aot.demo;
 
+import io.vgrente.spring.aot.demo.json.ProductJsonModule;
 import org.junit.jupiter.api.Test;
+import tools.jackson.databind.JacksonModule;
+import tools.jackson.databind.json.JsonMapper;
+
+import org.springframework.beans.factory.annotation.Autowired;
 import org.springframework.boot.test.context.SpringBootTest;
 
+import static org.assertj.core.api.Assertions.assertThat;
+
 @SpringBootTest
 class ApplicationTests {
 
+	@Autowired
+	private JsonMapper jsonMapper;
+
 	@Test
 	void contextLoads() {
 	}
 
+	@Test
+	void shouldRegisterProductJsonModule() {
+		assertThat(jsonMapper.registeredModules()).extracting(JacksonModule::getModuleName)
+				.contains(ProductJsonModule.class.getSimpleName());
+	}
+
 }
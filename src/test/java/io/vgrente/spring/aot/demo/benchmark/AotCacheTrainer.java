@@ -0,0 +1,114 @@
+package io.vgrente.spring.aot.demo.benchmark;
+
+import java.io.IOException;
+import java.io.UncheckedIOException;
+import java.net.ServerSocket;
+import java.net.URI;
+import java.net.http.HttpClient;
+import java.net.http.HttpRequest;
+import java.net.http.HttpResponse;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.time.Duration;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Training run for the JDK AOT cache (JDK 25, {@code -XX:AOTCacheOutput}) or a
+ * dynamic CDS archive (JDK 13+, {@code -XX:ArchiveClassesAtExit}). It starts
+ * the extracted application jar as a separate JVM with the recording option.
+ * It then drives every {@code ProductController} operation with
+ * {@link ProductLoadGenerator} so the archive covers the request path, not only
+ * context startup. Finally it stops the JVM gracefully so the archive is
+ * written on exit.
+ * <p>
+ * Invoked by the {@code aot-cache} Maven profile with the arguments
+ * {@code <directory> <jar> <record-option> <seconds> <rate>}. The training JVM
+ * is the one running this class, because the archive is only valid for the
+ * exact JDK that recorded it.
+ */
+public class AotCacheTrainer {
+
+	private static final String TRAINING_MIX = "list:15,get:35,search:20,post:15,put:10,delete:5";
+
+	public static void main(String[] args) throws Exception {
+		Path directory = Path.of(args[0]);
+		String jar = args[1];
+		String recordOption = args[2];
+		Duration duration = Duration.ofSeconds(Long.parseLong(args[3]));
+		int rate = Integer.parseInt(args[4]);
+
+		int port = freePort();
+		List<String> command = new ArrayList<>();
+		command.add(currentJava());
+		command.add(recordOption);
+		command.addAll(List.of("-jar", jar, "--server.port=" + port, "--spring.jpa.show-sql=false"));
+		Process app = new ProcessBuilder(command).directory(directory.toFile()).inheritIO().start();
+		try {
+			String baseUrl = "http://localhost:" + port;
+			awaitStarted(app, baseUrl, Duration.ofSeconds(120));
+
+			ProductLoadGenerator workload = new ProductLoadGenerator(baseUrl);
+			workload.seed();
+			long requests = workload.run(rate, duration, ProductLoadGenerator.parseMix(TRAINING_MIX));
+			System.out.printf("Training workload sent %,d requests%n", requests);
+		} finally {
+			// SIGTERM so that the JVM exits normally and dumps the archive
+			app.destroy();
+			if (!app.waitFor(10, TimeUnit.MINUTES)) {
+				app.destroyForcibly();
+				throw new IllegalStateException("Training JVM did not exit");
+			}
+		}
+		System.out.printf("Training JVM exited with %d; archive directory %s%n", app.exitValue(), directory);
+		try (var files = Files.list(directory)) {
+			files.filter(Files::isRegularFile).forEach(file -> System.out.println("  " + file.getFileName()));
+		}
+	}
+
+	static String currentJava() {
+		return ProcessHandle.current().info().command().orElse(Path.of(System.getProperty("java.home"), "bin", "java")
+				.toString());
+	}
+
+	static int freePort() {
+		try (ServerSocket socket = new ServerSocket(0)) {
+			return socket.getLocalPort();
+		} catch (IOException ex) {
+			throw new UncheckedIOException(ex);
+		}
+	}
+
+	/**
+	 * Polls the product list until it answers with 200. Returns the number of
+	 * nanoseconds between the given start time and the first successful
+	 * response.
+	 */
+	static long awaitFirstRequest(Process app, String baseUrl, long startNanos, Duration timeout)
+			throws InterruptedException {
+		HttpClient client = HttpClient.newBuilder().connectTimeout(Duration.ofSeconds(1)).build();
+		HttpRequest request = HttpRequest.newBuilder(URI.create(baseUrl + "/api/products?limit=1"))
+				.timeout(Duration.ofSeconds(5)).build();
+		long deadline = startNanos + timeout.toNanos();
+		while (System.nanoTime() < deadline) {
+			if (!app.isAlive()) {
+				throw new IllegalStateException("Application exited with " + app.exitValue());
+			}
+			try {
+				if (client.send(request, HttpResponse.BodyHandlers.discarding()).statusCode() == 200) {
+					return System.nanoTime() - startNanos;
+				}
+			} catch (IOException ex) {
+				// Not listening yet
+			}
+			Thread.sleep(5);
+		}
+		throw new IllegalStateException("Application did not answer within " + timeout);
+	}
+
+	private static void awaitStarted(Process app, String baseUrl, Duration timeout) throws InterruptedException {
+		awaitFirstRequest(app, baseUrl, System.nanoTime(), timeout);
+	}
+
+}
@@ -0,0 +1,45 @@
+package io.vgrente.spring.aot.demo.benchmark;
+
+import java.util.Random;
+
+import io.vgrente.spring.aot.demo.json.ProductJsonModule;
+import tools.jackson.databind.json.JsonMapper;
+
+/**
+ * Deterministic product names and JSON mappers shared by the benchmarks.
+ */
+final class BenchmarkData {
+
+	private static final String[] WORDS = {"laptop", "mouse", "keyboard", "monitor", "headphones", "wireless",
+			"gaming", "pro", "ultra", "compact", "mechanical", "curved", "portable", "usb", "bluetooth", "docking",
+			"station", "webcam", "speaker", "charger"};
+
+	private BenchmarkData() {
+	}
+
+	static String randomName(Random random) {
+		int words = 1 + random.nextInt(3);
+		StringBuilder name = new StringBuilder();
+		for (int i = 0; i < words; i++) {
+			if (i > 0) {
+				name.append(' ');
+			}
+			String word = WORDS[random.nextInt(WORDS.length)];
+			name.append(Character.toUpperCase(word.charAt(0))).append(word, 1, word.length());
+		}
+		return name.append(' ').append(random.nextInt(10_000)).toString();
+	}
+
+	/**
+	 * {@code reflective} uses Jackson's bean introspection, {@code module} the
+	 * dedicated serializers the application registers.
+	 */
+	static JsonMapper jsonMapper(String serializers) {
+		return switch (serializers) {
+			case "reflective" -> JsonMapper.builder().build();
+			case "module" -> JsonMapper.builder().addModule(new ProductJsonModule()).build();
+			default -> throw new IllegalArgumentException("Unknown serializers: " + serializers);
+		};
+	}
+
+}
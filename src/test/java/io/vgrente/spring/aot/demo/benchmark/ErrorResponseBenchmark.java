@@ -0,0 +1,66 @@
+package io.vgrente.spring.aot.demo.benchmark;
+
+import java.util.Map;
+import java.util.concurrent.TimeUnit;
+
+import io.vgrente.spring.aot.demo.error.ErrorResponse;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+import tools.jackson.databind.json.JsonMapper;
+
+/**
+ * Construction and serialization of {@link ErrorResponse}, as done by the
+ * global exception handler on every error.
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.NANOSECONDS)
+@Warmup(iterations = 3, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+public class ErrorResponseBenchmark {
+
+	@Param({"reflective", "module"})
+	private String serializers;
+
+	private JsonMapper mapper;
+
+	@Setup
+	public void setUp() {
+		mapper = BenchmarkData.jsonMapper(serializers);
+	}
+
+	@Benchmark
+	public ErrorResponse build() {
+		return notFound();
+	}
+
+	@Benchmark
+	public byte[] buildAndSerialize() {
+		return mapper.writeValueAsBytes(notFound());
+	}
+
+	@Benchmark
+	public byte[] buildAndSerializeWithErrors() {
+		return mapper.writeValueAsBytes(ErrorResponse.builder().type("about:blank").title("Validation Failed")
+				.status(400).detail("Request validation failed. See 'errors' for details.")
+				.instance("/api/products").errors(Map.of("name", "Product name is required", "price",
+						"Product price must be greater than or equal to 0"))
+				.build());
+	}
+
+	private static ErrorResponse notFound() {
+		return ErrorResponse.builder().type("about:blank").title("Resource Not Found").status(404)
+				.detail("Product not found with id: 999").instance("/api/products/999").build();
+	}
+
+}
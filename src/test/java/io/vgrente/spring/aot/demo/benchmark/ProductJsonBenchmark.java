@@ -0,0 +1,60 @@
+package io.vgrente.spring.aot.demo.benchmark;
+
+import java.util.concurrent.TimeUnit;
+
+import io.vgrente.spring.aot.demo.json.ProductJsonModule;
+import io.vgrente.spring.aot.demo.model.Product;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+import tools.jackson.databind.json.JsonMapper;
+
+/**
+ * {@link Product} (de)serialization through the Jackson 3 mapper, with
+ * Jackson's reflective bean serializers and with {@link ProductJsonModule}.
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.NANOSECONDS)
+@Warmup(iterations = 3, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+public class ProductJsonBenchmark {
+
+	@Param({"reflective", "module"})
+	private String serializers;
+
+	private JsonMapper mapper;
+
+	private Product product;
+
+	private byte[] json;
+
+	@Setup
+	public void setUp() {
+		mapper = BenchmarkData.jsonMapper(serializers);
+		product = new Product("Laptop", 999.99, "High performance laptop");
+		product.setId(42L);
+		product.setVersion(3L);
+		json = mapper.writeValueAsBytes(product);
+	}
+
+	@Benchmark
+	public byte[] serialize() {
+		return mapper.writeValueAsBytes(product);
+	}
+
+	@Benchmark
+	public Product deserialize() {
+		return mapper.readValue(json, Product.class);
+	}
+
+}
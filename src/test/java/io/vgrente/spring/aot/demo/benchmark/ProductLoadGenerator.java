@@ -0,0 +1,310 @@
+package io.vgrente.spring.aot.demo.benchmark;
+
+import java.io.IOException;
+import java.io.PrintStream;
+import java.net.URI;
+import java.net.http.HttpClient;
+import java.net.http.HttpRequest;
+import java.net.http.HttpResponse;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.time.Duration;
+import java.util.ArrayList;
+import java.util.EnumMap;
+import java.util.List;
+import java.util.Locale;
+import java.util.Map;
+import java.util.Random;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.ThreadLocalRandom;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.concurrent.locks.LockSupport;
+import java.util.concurrent.locks.ReentrantLock;
+
+import io.vgrente.spring.aot.demo.SpringAotDemoApplication;
+import org.HdrHistogram.ConcurrentHistogram;
+import org.HdrHistogram.Histogram;
+import tools.jackson.databind.JsonNode;
+import tools.jackson.databind.json.JsonMapper;
+
+import org.springframework.boot.builder.SpringApplicationBuilder;
+import org.springframework.context.ConfigurableApplicationContext;
+
+/**
+ * Open-model HTTP load generator for {@code /api/products}. Requests are issued
+ * at a fixed arrival rate regardless of how fast the server answers, and each
+ * latency is measured from the request's scheduled start time, so a stalled
+ * server shows up in the percentiles instead of silently lowering the offered
+ * load (no coordinated omission). Latencies are recorded in HDR histograms per
+ * operation.
+ *
+ * <p>
+ * By default the application is started in-process on a random port against
+ * embedded H2. Set {@code load.target} to drive an already running instance
+ * instead, for example the native-image binary:
+ *
+ * <pre>
+ * mvn test-compile exec:java -Dexec.classpathScope=test \
+ *     -Dexec.mainClass=io.vgrente.spring.aot.demo.benchmark.ProductLoadGenerator \
+ *     -Dload.rate=500 -Dload.duration=60 -Dload.mix=get:60,search:20,post:10,put:5,delete:5 \
+ *     [-Dload.target=http://localhost:8080]
+ * </pre>
+ *
+ * Percentile distributions are also written to
+ * {@code target/load-test/<operation>.hgrm} for plotting.
+ */
+public class ProductLoadGenerator {
+
+	enum Operation {
+		LIST, GET, SEARCH, POST, PUT, DELETE
+	}
+
+	private static final JsonMapper JSON = JsonMapper.builder().build();
+
+	private static final String[] SEARCH_TERMS = {"laptop", "wireless", "pro", "dock", "curved monitor", "usb"};
+
+	private static final int INITIAL_PRODUCTS = 1_000;
+
+	private final HttpClient client = HttpClient.newBuilder().connectTimeout(Duration.ofSeconds(5)).build();
+
+	private final String baseUrl;
+
+	private final Map<Operation, Histogram> histograms = new EnumMap<>(Operation.class);
+
+	private final Map<Operation, AtomicLong> errors = new EnumMap<>(Operation.class);
+
+	private final IdPool ids = new IdPool();
+
+	private volatile boolean recording;
+
+	ProductLoadGenerator(String baseUrl) {
+		this.baseUrl = baseUrl;
+		for (Operation operation : Operation.values()) {
+			histograms.put(operation, new ConcurrentHistogram(TimeUnit.MINUTES.toMicros(5), 3));
+			errors.put(operation, new AtomicLong());
+		}
+	}
+
+	public static void main(String[] args) throws Exception {
+		int rate = Integer.getInteger("load.rate", 200);
+		Duration warmup = Duration.ofSeconds(Long.getLong("load.warmup", 10));
+		Duration duration = Duration.ofSeconds(Long.getLong("load.duration", 60));
+		Operation[] mix = parseMix(System.getProperty("load.mix", "get:60,search:20,post:10,put:5,delete:5"));
+		String target = System.getProperty("load.target");
+
+		ConfigurableApplicationContext context = target == null ? start() : null;
+		try {
+			String baseUrl = target != null ? target
+					: "http://localhost:" + context.getEnvironment().getProperty("local.server.port");
+			ProductLoadGenerator generator = new ProductLoadGenerator(baseUrl);
+			generator.seed();
+
+			generator.run(rate, warmup, mix);
+			generator.recording = true;
+			long completed = generator.run(rate, duration, mix);
+			generator.report(System.out, completed, duration);
+			generator.writeDistributions(Path.of("target", "load-test"));
+		} finally {
+			if (context != null) {
+				context.close();
+			}
+		}
+	}
+
+	private static ConfigurableApplicationContext start() {
+		// Command-line arguments, as default properties would lose to application.properties
+		return new SpringApplicationBuilder(SpringAotDemoApplication.class).run("--server.port=0",
+				"--spring.datasource.url=jdbc:h2:mem:load-test", "--spring.jpa.show-sql=false",
+				"--logging.level.root=WARN");
+	}
+
+	/**
+	 * Expands a weighted mix such as {@code get:60,post:40} into a lookup table
+	 * of 100 slots.
+	 */
+	static Operation[] parseMix(String mix) {
+		List<Operation> slots = new ArrayList<>();
+		for (String entry : mix.split(",")) {
+			String[] parts = entry.trim().split(":");
+			Operation operation = Operation.valueOf(parts[0].toUpperCase(Locale.ROOT));
+			int weight = Integer.parseInt(parts[1]);
+			for (int i = 0; i < weight; i++) {
+				slots.add(operation);
+			}
+		}
+		if (slots.isEmpty()) {
+			throw new IllegalArgumentException("Empty load mix: " + mix);
+		}
+		return slots.toArray(Operation[]::new);
+	}
+
+	void seed() throws IOException, InterruptedException {
+		Random random = new Random(42);
+		StringBuilder batch = new StringBuilder("{\"create\":[");
+		for (int i = 0; i < INITIAL_PRODUCTS; i++) {
+			batch.append(i > 0 ? "," : "").append(productJson(random));
+		}
+		batch.append("]}");
+
+		HttpResponse<String> response = client.send(post("/api/products/batch", batch.toString()),
+				HttpResponse.BodyHandlers.ofString());
+		for (JsonNode result : JSON.readTree(response.body()).get("results")) {
+			ids.add(result.get("id").asLong());
+		}
+	}
+
+	long run(int rate, Duration duration, Operation[] mix) throws InterruptedException {
+		long intervalNanos = TimeUnit.SECONDS.toNanos(1) / rate;
+		long requests = duration.toSeconds() * rate;
+		long start = System.nanoTime();
+
+		try (ExecutorService executor = Executors.newVirtualThreadPerTaskExecutor()) {
+			for (long i = 0; i < requests; i++) {
+				long scheduled = start + i * intervalNanos;
+				long delay = scheduled - System.nanoTime();
+				if (delay > 0) {
+					LockSupport.parkNanos(delay);
+				}
+				Operation operation = mix[ThreadLocalRandom.current().nextInt(mix.length)];
+				executor.submit(() -> execute(operation, scheduled));
+			}
+		}
+		return requests;
+	}
+
+	private void execute(Operation operation, long scheduled) {
+		try {
+			HttpResponse<String> response = client.send(request(operation), HttpResponse.BodyHandlers.ofString());
+			if (response.statusCode() >= 400 && response.statusCode() != 404) {
+				errors.get(operation).incrementAndGet();
+			} else if (operation == Operation.POST) {
+				ids.add(JSON.readTree(response.body()).get("id").asLong());
+			}
+		} catch (Exception e) {
+			errors.get(operation).incrementAndGet();
+		} finally {
+			if (recording) {
+				// Measured from the scheduled start to avoid coordinated omission
+				histograms.get(operation).recordValue(TimeUnit.NANOSECONDS.toMicros(System.nanoTime() - scheduled));
+			}
+		}
+	}
+
+	private HttpRequest request(Operation operation) {
+		ThreadLocalRandom random = ThreadLocalRandom.current();
+		return switch (operation) {
+			case LIST -> get("/api/products?limit=20&minPrice=" + random.nextInt(500));
+			case GET -> get("/api/products/" + ids.random());
+			case SEARCH -> get("/api/products/search?name="
+					+ SEARCH_TERMS[random.nextInt(SEARCH_TERMS.length)].replace(" ", "%20"));
+			case POST -> post("/api/products", productJson(random));
+			case PUT -> HttpRequest.newBuilder(URI.create(baseUrl + "/api/products/" + ids.random()))
+					.header("Content-Type", "application/json")
+					.PUT(HttpRequest.BodyPublishers.ofString(productJson(random))).timeout(Duration.ofSeconds(30))
+					.build();
+			case DELETE -> HttpRequest.newBuilder(URI.create(baseUrl + "/api/products/" + ids.take())).DELETE()
+					.timeout(Duration.ofSeconds(30)).build();
+		};
+	}
+
+	private HttpRequest get(String path) {
+		return HttpRequest.newBuilder(URI.create(baseUrl + path)).timeout(Duration.ofSeconds(30)).build();
+	}
+
+	private HttpRequest post(String path, String json) {
+		return HttpRequest.newBuilder(URI.create(baseUrl + path)).header("Content-Type", "application/json")
+				.POST(HttpRequest.BodyPublishers.ofString(json)).timeout(Duration.ofSeconds(30)).build();
+	}
+
+	private static String productJson(Random random) {
+		return String.format(Locale.ROOT, "{\"name\":\"%s\",\"price\":%.2f,\"description\":\"Load test product\"}",
+				BenchmarkData.randomName(random), random.nextInt(100_000) / 100.0);
+	}
+
+	private void report(PrintStream out, long requests, Duration duration) {
+		Histogram total = new Histogram(TimeUnit.MINUTES.toMicros(5), 3);
+		long totalErrors = 0;
+		out.printf("Offered %,d requests in %ds (%.0f req/s) against %s%n", requests, duration.toSeconds(),
+				requests / (double) duration.toSeconds(), baseUrl);
+		out.printf("%-8s %10s %10s %10s %10s %10s %8s%n", "op", "count", "p50 ms", "p99 ms", "p99.9 ms", "max ms",
+				"errors");
+		for (Operation operation : Operation.values()) {
+			Histogram histogram = histograms.get(operation);
+			long operationErrors = errors.get(operation).get();
+			if (histogram.getTotalCount() > 0) {
+				print(out, operation.name(), histogram, operationErrors);
+				total.add(histogram);
+				totalErrors += operationErrors;
+			}
+		}
+		print(out, "ALL", total, totalErrors);
+		out.printf("Throughput: %.0f req/s%n", (total.getTotalCount() - totalErrors) / (double) duration.toSeconds());
+	}
+
+	private static void print(PrintStream out, String name, Histogram histogram, long errors) {
+		out.printf("%-8s %10d %10.2f %10.2f %10.2f %10.2f %8d%n", name, histogram.getTotalCount(),
+				histogram.getValueAtPercentile(50) / 1000.0, histogram.getValueAtPercentile(99) / 1000.0,
+				histogram.getValueAtPercentile(99.9) / 1000.0, histogram.getMaxValue() / 1000.0, errors);
+	}
+
+	private void writeDistributions(Path directory) throws IOException {
+		Files.createDirectories(directory);
+		for (Operation operation : Operation.values()) {
+			Histogram histogram = histograms.get(operation);
+			if (histogram.getTotalCount() > 0) {
+				try (PrintStream out = new PrintStream(Files.newOutputStream(
+						directory.resolve(operation.name().toLowerCase(Locale.ROOT) + ".hgrm")))) {
+					histogram.outputPercentileDistribution(out, 1000.0);
+				}
+			}
+		}
+	}
+
+	/**
+	 * Ids of existing products to read, update and delete.
+	 */
+	private static final class IdPool {
+
+		private final ReentrantLock lock = new ReentrantLock();
+
+		private final List<Long> ids = new ArrayList<>();
+
+		void add(long id) {
+			lock.lock();
+			try {
+				ids.add(id);
+			} finally {
+				lock.unlock();
+			}
+		}
+
+		long random() {
+			lock.lock();
+			try {
+				return ids.isEmpty() ? 0 : ids.get(ThreadLocalRandom.current().nextInt(ids.size()));
+			} finally {
+				lock.unlock();
+			}
+		}
+
+		long take() {
+			lock.lock();
+			try {
+				if (ids.isEmpty()) {
+					return 0;
+				}
+				int index = ThreadLocalRandom.current().nextInt(ids.size());
+				long id = ids.get(index);
+				ids.set(index, ids.getLast());
+				ids.removeLast();
+				return id;
+			} finally {
+				lock.unlock();
+			}
+		}
+
+	}
+
+}
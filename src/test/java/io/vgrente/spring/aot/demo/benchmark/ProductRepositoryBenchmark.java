@@ -0,0 +1,98 @@
+package io.vgrente.spring.aot.demo.benchmark;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Optional;
+import java.util.Random;
+import java.util.concurrent.ThreadLocalRandom;
+import java.util.concurrent.TimeUnit;
+
+import io.vgrente.spring.aot.demo.SpringAotDemoApplication;
+import io.vgrente.spring.aot.demo.model.Product;
+import io.vgrente.spring.aot.demo.repository.ProductRepository;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.TearDown;
+import org.openjdk.jmh.annotations.Warmup;
+
+import org.springframework.boot.WebApplicationType;
+import org.springframework.boot.builder.SpringApplicationBuilder;
+import org.springframework.context.ConfigurableApplicationContext;
+
+/**
+ * {@link ProductRepository} hot paths against embedded H2 at several table
+ * sizes, with and without the Hibernate second-level and query cache. The
+ * application context is started once per trial without a web server.
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Warmup(iterations = 3, time = 2)
+@Measurement(iterations = 5, time = 2)
+@Fork(1)
+public class ProductRepositoryBenchmark {
+
+	private static final int SEED_BATCH_SIZE = 1_000;
+
+	@Param({"1000", "10000", "100000"})
+	public int rows;
+
+	@Param({"false", "true"})
+	public boolean secondLevelCache;
+
+	private ConfigurableApplicationContext context;
+
+	private ProductRepository productRepository;
+
+	private List<Long> ids;
+
+	@Setup
+	public void setUp() {
+		context = new SpringApplicationBuilder(SpringAotDemoApplication.class).web(WebApplicationType.NONE)
+				.run("--spring.datasource.url=jdbc:h2:mem:repository-benchmark-" + rows + "-" + secondLevelCache,
+						"--spring.jpa.show-sql=false", "--logging.level.root=WARN",
+						"--spring.jpa.properties.hibernate.cache.use_second_level_cache=" + secondLevelCache,
+						"--spring.jpa.properties.hibernate.cache.use_query_cache=" + secondLevelCache);
+		productRepository = context.getBean(ProductRepository.class);
+
+		Random random = new Random(42);
+		ids = new ArrayList<>(rows);
+		List<Product> batch = new ArrayList<>(SEED_BATCH_SIZE);
+		for (int i = 0; i < rows; i++) {
+			batch.add(new Product(BenchmarkData.randomName(random), random.nextInt(100_000) / 100.0, null));
+			if (batch.size() == SEED_BATCH_SIZE || i == rows - 1) {
+				productRepository.saveAll(batch).forEach(product -> ids.add(product.getId()));
+				batch.clear();
+			}
+		}
+	}
+
+	@TearDown
+	public void tearDown() {
+		context.close();
+	}
+
+	@Benchmark
+	public Optional<Product> findById() {
+		return productRepository.findById(ids.get(ThreadLocalRandom.current().nextInt(ids.size())));
+	}
+
+	@Benchmark
+	public List<Product> findByNameContainingIgnoreCaseSelective() {
+		return productRepository.findByNameContainingIgnoreCase("webcam 1234");
+	}
+
+	@Benchmark
+	public List<Product> findByNameContainingIgnoreCaseCommon() {
+		return productRepository.findByNameContainingIgnoreCase("laptop");
+	}
+
+}
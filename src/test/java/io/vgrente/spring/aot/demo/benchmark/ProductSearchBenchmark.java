@@ -0,0 +1,122 @@
+package io.vgrente.spring.aot.demo.benchmark;
+
+import java.sql.Connection;
+import java.sql.DriverManager;
+import java.sql.PreparedStatement;
+import java.sql.ResultSet;
+import java.sql.SQLException;
+import java.sql.Statement;
+import java.util.List;
+import java.util.Random;
+
+import io.vgrente.spring.aot.demo.service.TrigramIndex;
+
+/**
+ * Compares substring search through {@code LOWER(name) LIKE '%term%'} on H2
+ * with the in-memory {@link TrigramIndex}. The LIKE query is measured both
+ * unbounded (the previous endpoint behaviour) and limited to the first rows by
+ * id, which stops early for common terms but still scans the whole table for
+ * selective ones. The index always returns the best ranked matches. Run with:
+ *
+ * <pre>
+ * mvn test-compile exec:java -Dexec.classpathScope=test \
+ *     -Dexec.mainClass=io.vgrente.spring.aot.demo.benchmark.ProductSearchBenchmark \
+ *     -Dexec.args="1000000"
+ * </pre>
+ */
+public class ProductSearchBenchmark {
+
+	private static final String[] QUERIES = {"laptop", "wireless mouse", "ultra", "dock", "curved monitor",
+			"bluetooth speaker 42", "webcam 1234", "charger 999"};
+
+	private static final int LIMIT = 20;
+
+	private static final int ITERATIONS = 20;
+
+	public static void main(String[] args) throws SQLException {
+		int rows = args.length > 0 ? Integer.parseInt(args[0]) : 1_000_000;
+		Random random = new Random(42);
+		TrigramIndex index = new TrigramIndex();
+
+		try (Connection connection = DriverManager.getConnection("jdbc:h2:mem:search-benchmark", "sa", "")) {
+			long start = System.nanoTime();
+			populate(connection, rows, random, index);
+			System.out.printf("Loaded %,d rows in %d ms%n", rows, millisSince(start));
+
+			try (PreparedStatement likeAll = connection
+					.prepareStatement("select id from products where lower(name) like ? order by id");
+					PreparedStatement likeFirst = connection.prepareStatement(
+							"select id from products where lower(name) like ? order by id fetch first "
+									+ LIMIT + " rows only")) {
+				System.out.printf("%-22s %14s %16s %12s%n", "query", "like all (ms)", "like first (ms)",
+						"index (ms)");
+				for (String query : QUERIES) {
+					double likeAllMillis = measure(() -> runLike(likeAll, query));
+					double likeFirstMillis = measure(() -> runLike(likeFirst, query));
+					double indexMillis = measure(() -> index.search(query, LIMIT).size());
+					System.out.printf("%-22s %14.3f %16.3f %12.3f%n", query, likeAllMillis, likeFirstMillis,
+							indexMillis);
+				}
+			}
+		}
+	}
+
+	private static void populate(Connection connection, int rows, Random random, TrigramIndex index)
+			throws SQLException {
+		try (Statement ddl = connection.createStatement()) {
+			ddl.execute("create table products (id bigint primary key, name varchar(255) not null, "
+					+ "price double not null, description varchar(255))");
+		}
+		connection.setAutoCommit(false);
+		try (PreparedStatement insert = connection
+				.prepareStatement("insert into products (id, name, price, description) values (?, ?, ?, ?)")) {
+			for (int id = 1; id <= rows; id++) {
+				String name = BenchmarkData.randomName(random);
+				insert.setLong(1, id);
+				insert.setString(2, name);
+				insert.setDouble(3, random.nextInt(100_000) / 100.0);
+				insert.setString(4, null);
+				insert.addBatch();
+				index.add(id, name);
+				if (id % 1_000 == 0) {
+					insert.executeBatch();
+				}
+			}
+			insert.executeBatch();
+		}
+		connection.commit();
+	}
+
+	private static int runLike(PreparedStatement like, String query) throws SQLException {
+		like.setString(1, "%" + query.toLowerCase() + "%");
+		int count = 0;
+		try (ResultSet resultSet = like.executeQuery()) {
+			while (resultSet.next()) {
+				count++;
+			}
+		}
+		return count;
+	}
+
+	private static double measure(SearchCall call) throws SQLException {
+		// Warm up once, then report the mean latency
+		call.run();
+		long start = System.nanoTime();
+		for (int i = 0; i < ITERATIONS; i++) {
+			call.run();
+		}
+		return (System.nanoTime() - start) / 1_000_000.0 / ITERATIONS;
+	}
+
+	private static long millisSince(long start) {
+		return (System.nanoTime() - start) / 1_000_000;
+	}
+
+	@FunctionalInterface
+	private interface SearchCall {
+
+		int run() throws SQLException;
+
+	}
+
+}
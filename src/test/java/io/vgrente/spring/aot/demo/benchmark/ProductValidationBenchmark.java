@@ -0,0 +1,66 @@
+package io.vgrente.spring.aot.demo.benchmark;
+
+import java.util.Set;
+import java.util.concurrent.TimeUnit;
+
+import io.vgrente.spring.aot.demo.model.Product;
+import jakarta.validation.ConstraintViolation;
+import jakarta.validation.Validation;
+import jakarta.validation.Validator;
+import jakarta.validation.ValidatorFactory;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.TearDown;
+import org.openjdk.jmh.annotations.Warmup;
+
+/**
+ * Bean validation of {@link Product}, for a valid product and for one that
+ * violates every constraint.
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.NANOSECONDS)
+@Warmup(iterations = 3, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+public class ProductValidationBenchmark {
+
+	private ValidatorFactory validatorFactory;
+
+	private Validator validator;
+
+	private Product valid;
+
+	private Product invalid;
+
+	@Setup
+	public void setUp() {
+		validatorFactory = Validation.buildDefaultValidatorFactory();
+		validator = validatorFactory.getValidator();
+		valid = new Product("Laptop", 999.99, "High performance laptop");
+		invalid = new Product("", -1.0, null);
+	}
+
+	@TearDown
+	public void tearDown() {
+		validatorFactory.close();
+	}
+
+	@Benchmark
+	public Set<ConstraintViolation<Product>> validProduct() {
+		return validator.validate(valid);
+	}
+
+	@Benchmark
+	public Set<ConstraintViolation<Product>> invalidProduct() {
+		return validator.validate(invalid);
+	}
+
+}
@@ -0,0 +1,22 @@
+package io.vgrente.spring.aot.demo.benchmark;
+
+import java.util.concurrent.locks.LockSupport;
+
+import org.hibernate.resource.jdbc.spi.StatementInspector;
+
+/**
+ * Adds a fixed delay before every SQL statement while the JDBC connection is
+ * held, simulating a slow database round trip on top of in-memory H2. The delay
+ * is read from the {@code benchmark.db-latency-ms} system property.
+ */
+public class SlowStatementInspector implements StatementInspector {
+
+	private static final long LATENCY_NANOS = Long.getLong("benchmark.db-latency-ms", 20) * 1_000_000;
+
+	@Override
+	public String inspect(String sql) {
+		LockSupport.parkNanos(LATENCY_NANOS);
+		return sql;
+	}
+
+}
@@ -0,0 +1,119 @@
+package io.vgrente.spring.aot.demo.benchmark;
+
+import java.io.IOException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.time.Duration;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Startup comparison of the plain JVM, the JVM with the AOT cache recorded by
+ * the {@code aot-cache} profile, and the native image. Each variant is started
+ * {@code startup.runs} times as a fresh process. The benchmark reports
+ * time-to-first-request, measured from process launch to the first 200 from
+ * {@code GET /api/products}, and the resident set size at that point.
+ *
+ * <pre>
+ * mvn -Paot-cache package
+ * mvn -Pnative native:compile        # optional, adds the native row
+ * mvn test-compile exec:java -Dexec.classpathScope=test \
+ *     -Dexec.mainClass=io.vgrente.spring.aot.demo.benchmark.StartupBenchmark -Dstartup.runs=10
+ * </pre>
+ *
+ * Variants whose artifacts are missing are skipped. The JVM runs use the
+ * {@code java} launcher running this class, which must be the JDK that
+ * recorded the cache.
+ */
+public class StartupBenchmark {
+
+	public static void main(String[] args) throws Exception {
+		int runs = Integer.getInteger("startup.runs", 5);
+		Path directory = Path.of(System.getProperty("startup.dir", "target/aot-cache"));
+		String cacheOption = System.getProperty("startup.cache-option", "-XX:AOTCache=app.aot");
+		Path nativeImage = Path.of(System.getProperty("startup.native", "target/spring.aot.demo"));
+
+		String java = AotCacheTrainer.currentJava();
+		String jar = findJar(directory);
+		String cacheFile = cacheOption.substring(cacheOption.indexOf('=') + 1);
+
+		System.out.printf("%-12s %6s %14s %14s %12s%n", "variant", "runs", "TTFR p50 ms", "TTFR min ms",
+				"RSS p50 MB");
+		if (jar != null) {
+			measure("jvm", directory, List.of(java, "-jar", jar), runs);
+			if (Files.exists(directory.resolve(cacheFile))) {
+				measure("jvm+aot", directory, List.of(java, cacheOption, "-jar", jar), runs);
+			} else {
+				System.out.printf("%-12s skipped, %s not found%n", "jvm+aot", directory.resolve(cacheFile));
+			}
+		} else {
+			System.out.printf("%-12s skipped, no application jar in %s (run mvn -Paot-cache package)%n", "jvm",
+					directory);
+		}
+		if (Files.isExecutable(nativeImage)) {
+			measure("native", Path.of("."), List.of(nativeImage.toString()), runs);
+		} else {
+			System.out.printf("%-12s skipped, %s not found%n", "native", nativeImage);
+		}
+	}
+
+	private static void measure(String variant, Path directory, List<String> command, int runs) throws Exception {
+		long[] ttfr = new long[runs];
+		long[] rss = new long[runs];
+		for (int run = 0; run < runs; run++) {
+			int port = AotCacheTrainer.freePort();
+			List<String> fullCommand = new ArrayList<>(command);
+			fullCommand.addAll(List.of("--server.port=" + port, "--spring.jpa.show-sql=false"));
+
+			ProcessBuilder builder = new ProcessBuilder(fullCommand).directory(directory.toFile())
+					.redirectErrorStream(true).redirectOutput(ProcessBuilder.Redirect.DISCARD);
+			long start = System.nanoTime();
+			Process app = builder.start();
+			try {
+				ttfr[run] = AotCacheTrainer.awaitFirstRequest(app, "http://localhost:" + port, start,
+						Duration.ofSeconds(120));
+				rss[run] = residentSetKilobytes(app.pid());
+			} finally {
+				app.destroy();
+				if (!app.waitFor(30, TimeUnit.SECONDS)) {
+					app.destroyForcibly().waitFor();
+				}
+			}
+		}
+		Arrays.sort(ttfr);
+		Arrays.sort(rss);
+		System.out.printf("%-12s %6d %14.0f %14.0f %12.1f%n", variant, runs, ttfr[runs / 2] / 1e6, ttfr[0] / 1e6,
+				rss[runs / 2] / 1024.0);
+	}
+
+	private static String findJar(Path directory) throws IOException {
+		if (!Files.isDirectory(directory)) {
+			return null;
+		}
+		try (var files = Files.list(directory)) {
+			return files.map(file -> file.getFileName().toString()).filter(name -> name.endsWith(".jar")).findFirst()
+					.orElse(null);
+		}
+	}
+
+	/**
+	 * Reads VmRSS from procfs on Linux, falling back to {@code ps} elsewhere.
+	 */
+	private static long residentSetKilobytes(long pid) throws IOException, InterruptedException {
+		Path status = Path.of("/proc", String.valueOf(pid), "status");
+		if (Files.exists(status)) {
+			for (String line : Files.readAllLines(status)) {
+				if (line.startsWith("VmRSS:")) {
+					return Long.parseLong(line.replaceAll("[^0-9]", ""));
+				}
+			}
+		}
+		Process ps = new ProcessBuilder("ps", "-o", "rss=", "-p", String.valueOf(pid)).start();
+		String output = new String(ps.getInputStream().readAllBytes()).trim();
+		ps.waitFor();
+		return output.isEmpty() ? 0 : Long.parseLong(output);
+	}
+
+}
@@ -0,0 +1,147 @@
+package io.vgrente.spring.aot.demo.benchmark;
+
+import java.net.URI;
+import java.net.http.HttpClient;
+import java.net.http.HttpRequest;
+import java.net.http.HttpResponse;
+import java.time.Duration;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.atomic.AtomicLong;
+
+import io.vgrente.spring.aot.demo.SpringAotDemoApplication;
+import jdk.jfr.consumer.RecordingStream;
+
+import org.springframework.boot.builder.SpringApplicationBuilder;
+import org.springframework.context.ConfigurableApplicationContext;
+
+/**
+ * Compares throughput and p99 latency of {@code GET /api/products} served on
+ * Tomcat's platform-thread pool and on virtual threads, at 1k and 10k
+ * concurrent connections, with every SQL statement delayed by
+ * {@link SlowStatementInspector}. The second-level and query caches are
+ * disabled, so every request reaches the database, and so are the adaptive
+ * concurrency limits, so neither mode sheds load. In virtual-thread mode the
+ * number of {@code jdk.VirtualThreadPinned} JFR events is reported as well.
+ * Run with:
+ *
+ * <pre>
+ * mvn test-compile exec:java -Dexec.classpathScope=test \
+ *     -Dexec.mainClass=io.vgrente.spring.aot.demo.benchmark.VirtualThreadBenchmark \
+ *     -Dexec.args="1000,10000 30" -Dbenchmark.db-latency-ms=20
+ * </pre>
+ *
+ * The clients are closed-loop (each sends its next request once the previous
+ * one completed), so the numbers compare the two modes with each other rather
+ * than describe absolute service latency.
+ */
+public class VirtualThreadBenchmark {
+
+	private static final int POOL_SIZE = 200;
+
+	// Pause before a client retries after a 503 instead of spinning on it
+	private static final Duration RETRY_BACKOFF = Duration.ofMillis(100);
+
+	public static void main(String[] args) throws Exception {
+		int[] concurrencies = args.length > 0
+				? Arrays.stream(args[0].split(",")).mapToInt(Integer::parseInt).toArray()
+				: new int[]{1_000, 10_000};
+		Duration duration = Duration.ofSeconds(args.length > 1 ? Long.parseLong(args[1]) : 30);
+
+		List<String> report = new ArrayList<>();
+		report.add(String.format("%-10s %12s %14s %12s %10s %8s", "mode", "connections", "throughput/s",
+				"p99 (ms)", "errors", "pinned"));
+		for (boolean virtual : new boolean[]{false, true}) {
+			try (ConfigurableApplicationContext context = start(virtual);
+					RecordingStream pinned = new RecordingStream()) {
+				AtomicLong pinnedEvents = new AtomicLong();
+				pinned.enable("jdk.VirtualThreadPinned").withThreshold(Duration.ZERO);
+				pinned.onEvent("jdk.VirtualThreadPinned", event -> pinnedEvents.incrementAndGet());
+				pinned.startAsync();
+
+				String baseUrl = "http://localhost:" + context.getEnvironment().getProperty("local.server.port");
+				for (int concurrency : concurrencies) {
+					pinnedEvents.set(0);
+					Result result = run(baseUrl + "/api/products?limit=20", concurrency, duration);
+					report.add(String.format("%-10s %12d %14.0f %12.1f %10d %8s", virtual ? "virtual" : "platform",
+							concurrency, result.throughput(), result.p99Millis(), result.errors(),
+							virtual ? pinnedEvents.get() : "-"));
+				}
+			}
+		}
+		report.forEach(System.out::println);
+	}
+
+	private static ConfigurableApplicationContext start(boolean virtual) {
+		return new SpringApplicationBuilder(SpringAotDemoApplication.class)
+				.properties("server.port=0", "spring.threads.virtual.enabled=" + virtual,
+						"spring.datasource.url=jdbc:h2:mem:vt-benchmark-" + virtual,
+						"spring.datasource.hikari.maximum-pool-size=" + POOL_SIZE, "spring.jpa.show-sql=false",
+						"spring.jpa.properties.hibernate.session_factory.statement_inspector="
+								+ SlowStatementInspector.class.getName(),
+						"spring.jpa.properties.hibernate.cache.use_second_level_cache=false",
+						"spring.jpa.properties.hibernate.cache.use_query_cache=false",
+						"app.products.concurrency.enabled=false", "logging.level.root=WARN")
+				.run();
+	}
+
+	private static Result run(String url, int concurrency, Duration duration) throws InterruptedException {
+		HttpClient client = HttpClient.newBuilder().executor(Executors.newVirtualThreadPerTaskExecutor())
+				.connectTimeout(Duration.ofSeconds(10)).build();
+		HttpRequest request = HttpRequest.newBuilder(URI.create(url)).timeout(Duration.ofSeconds(30)).build();
+		long[][] latencies = new long[concurrency][];
+		int[] counts = new int[concurrency];
+		AtomicLong errors = new AtomicLong();
+		long deadline = System.nanoTime() + duration.toNanos();
+
+		try (ExecutorService clients = Executors.newVirtualThreadPerTaskExecutor()) {
+			for (int i = 0; i < concurrency; i++) {
+				int slot = i;
+				clients.submit(() -> {
+					long[] samples = new long[1024];
+					int count = 0;
+					while (System.nanoTime() < deadline) {
+						long start = System.nanoTime();
+						try {
+							HttpResponse<Void> response = client.send(request, HttpResponse.BodyHandlers.discarding());
+							if (response.statusCode() != 200) {
+								errors.incrementAndGet();
+								if (response.statusCode() == 503) {
+									Thread.sleep(RETRY_BACKOFF);
+								}
+								continue;
+							}
+						} catch (Exception e) {
+							errors.incrementAndGet();
+							continue;
+						}
+						if (count == samples.length) {
+							samples = Arrays.copyOf(samples, count * 2);
+						}
+						samples[count++] = System.nanoTime() - start;
+					}
+					latencies[slot] = samples;
+					counts[slot] = count;
+				});
+			}
+		}
+
+		int total = Arrays.stream(counts).sum();
+		long[] all = new long[total];
+		int offset = 0;
+		for (int i = 0; i < concurrency; i++) {
+			System.arraycopy(latencies[i], 0, all, offset, counts[i]);
+			offset += counts[i];
+		}
+		Arrays.sort(all);
+		double p99Millis = total == 0 ? 0 : all[(int) Math.min(total - 1, Math.ceil(total * 0.99) - 1)] / 1e6;
+		return new Result(total / (double) duration.toSeconds(), p99Millis, errors.get());
+	}
+
+	private record Result(double throughput, double p99Millis, long errors) {
+	}
+
+}
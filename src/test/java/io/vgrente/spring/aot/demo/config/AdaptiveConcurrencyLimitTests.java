@@ -0,0 +1,66 @@
+package io.vgrente.spring.aot.demo.config;
+
+import java.util.concurrent.TimeUnit;
+import java.util.function.IntSupplier;
+
+import org.junit.jupiter.api.Test;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+class AdaptiveConcurrencyLimitTests {
+
+	private static final long WINDOW = TimeUnit.MILLISECONDS.toNanos(100);
+
+	private long now = System.nanoTime();
+
+	@Test
+	void shouldRejectBeyondLimitWithoutBlocking() {
+		AdaptiveConcurrencyLimit limit = new AdaptiveConcurrencyLimit(2, 1, 10, 100);
+
+		assertThat(limit.tryAcquire()).isTrue();
+		assertThat(limit.tryAcquire()).isTrue();
+		assertThat(limit.tryAcquire()).isFalse();
+
+		limit.release(TimeUnit.MILLISECONDS.toNanos(5));
+		assertThat(limit.tryAcquire()).isTrue();
+	}
+
+	@Test
+	void shouldGrowWhileLatencyStaysAtBaseline() {
+		AdaptiveConcurrencyLimit limit = new AdaptiveConcurrencyLimit(20, 4, 100, 100);
+
+		windows(limit, 50, 5, limit::limit);
+
+		assertThat(limit.limit()).isGreaterThan(40);
+	}
+
+	@Test
+	void shouldShrinkWhenLatencyRises() {
+		AdaptiveConcurrencyLimit limit = new AdaptiveConcurrencyLimit(50, 4, 100, 100);
+		windows(limit, 5, 5, limit::limit);
+		int before = limit.limit();
+
+		windows(limit, 20, 50, limit::limit);
+
+		assertThat(limit.limit()).isLessThan(before / 2).isGreaterThanOrEqualTo(4);
+	}
+
+	@Test
+	void shouldNotGrowWhileMostlyIdle() {
+		AdaptiveConcurrencyLimit limit = new AdaptiveConcurrencyLimit(20, 4, 100, 100);
+
+		windows(limit, 50, 5, () -> 2);
+
+		assertThat(limit.limit()).isEqualTo(20);
+	}
+
+	private void windows(AdaptiveConcurrencyLimit limit, int count, long rttMillis, IntSupplier inFlight) {
+		for (int window = 0; window < count; window++) {
+			now += WINDOW;
+			for (int sample = 0; sample < 10; sample++) {
+				limit.onSample(TimeUnit.MILLISECONDS.toNanos(rttMillis), inFlight.getAsInt(), now);
+			}
+		}
+	}
+
+}
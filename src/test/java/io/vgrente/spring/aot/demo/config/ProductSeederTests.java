@@ -0,0 +1,70 @@
+package io.vgrente.spring.aot.demo.config;
+
+import java.util.List;
+import java.util.Random;
+
+import org.h2.jdbcx.JdbcDataSource;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+
+import org.springframework.jdbc.core.JdbcTemplate;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+class ProductSeederTests {
+
+	private JdbcDataSource dataSource;
+
+	private JdbcTemplate jdbc;
+
+	@BeforeEach
+	void setUp() {
+		dataSource = new JdbcDataSource();
+		dataSource.setURL("jdbc:h2:mem:seeder-" + System.nanoTime() + ";DB_CLOSE_DELAY=-1");
+		jdbc = new JdbcTemplate(dataSource);
+		jdbc.execute("CREATE SEQUENCE product_seq START WITH 1 INCREMENT BY 50");
+		jdbc.execute("CREATE TABLE products (id BIGINT PRIMARY KEY, name VARCHAR(255) NOT NULL, "
+				+ "price FLOAT NOT NULL, description VARCHAR(255), version BIGINT)");
+	}
+
+	@Test
+	void shouldInsertRequestedRowsWithUniqueIdsInParallel() {
+		// Simulate Hibernate's pooled optimizer having taken the first block
+		jdbc.queryForObject("SELECT NEXT VALUE FOR product_seq", Long.class);
+		jdbc.queryForObject("SELECT NEXT VALUE FOR product_seq", Long.class);
+
+		new ProductSeeder(dataSource, 42, 3, 500).seed(25_123);
+
+		assertThat(jdbc.queryForObject("SELECT COUNT(*) FROM products", Long.class)).isEqualTo(25_123);
+		assertThat(jdbc.queryForObject("SELECT COUNT(DISTINCT id) FROM products", Long.class)).isEqualTo(25_123);
+		assertThat(jdbc.queryForObject("SELECT MIN(id) FROM products", Long.class)).isGreaterThan(51);
+		assertThat(jdbc.queryForObject("SELECT MAX(LENGTH(description)) FROM products", Integer.class))
+				.isLessThanOrEqualTo(255);
+	}
+
+	@Test
+	void shouldGenerateSameDataForSameSeed() {
+		new ProductSeeder(dataSource, 7, 4, 100).seed(20_000);
+		List<String> first = jdbc.queryForList("SELECT name FROM products ORDER BY name, price", String.class);
+
+		jdbc.execute("DELETE FROM products");
+		new ProductSeeder(dataSource, 7, 1, 1000).seed(20_000);
+
+		assertThat(jdbc.queryForList("SELECT name FROM products ORDER BY name, price", String.class))
+				.isEqualTo(first);
+	}
+
+	@Test
+	void shouldProduceValidFieldValues() {
+		Random random = new Random(1);
+		for (int i = 0; i < 10_000; i++) {
+			assertThat(ProductSeeder.name(random)).isNotBlank().hasSizeLessThanOrEqualTo(255);
+			assertThat(ProductSeeder.price(random)).isBetween(0.0, 100_000.0);
+			String description = ProductSeeder.description(random);
+			if (description != null) {
+				assertThat(description).hasSizeLessThanOrEqualTo(255);
+			}
+		}
+	}
+
+}
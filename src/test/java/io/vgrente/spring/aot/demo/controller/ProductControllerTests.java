@@ -1,16 +1,22 @@
 package io.vgrente.spring.aot.demo.controller;
 
+import io.micrometer.core.instrument.MeterRegistry;
 import io.vgrente.spring.aot.demo.model.Product;
 import io.vgrente.spring.aot.demo.repository.ProductRepository;
 import org.junit.jupiter.api.BeforeEach;
 import org.junit.jupiter.api.Test;
 import org.springframework.beans.factory.annotation.Autowired;
 import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.http.HttpHeaders;
 import org.springframework.http.MediaType;
 import org.springframework.test.web.servlet.MockMvc;
+import org.springframework.test.web.servlet.MvcResult;
 import org.springframework.test.web.servlet.setup.MockMvcBuilders;
 import org.springframework.web.context.WebApplicationContext;
+import tools.jackson.dataformat.cbor.CBORMapper;
+import tools.jackson.dataformat.smile.SmileMapper;
 
+import static org.assertj.core.api.Assertions.assertThat;
 import static org.hamcrest.Matchers.*;
 import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.*;
 import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.*;
@@ -26,6 +32,9 @@ class ProductControllerTest {
 	@Autowired
 	private ProductRepository productRepository;
 
+	@Autowired
+	private MeterRegistry meterRegistry;
+
 	@BeforeEach
 	void setUp() {
 		mockMvc = MockMvcBuilders.webAppContextSetup(webApplicationContext).build();
@@ -41,6 +50,179 @@ class ProductControllerTest {
 				.andExpect(jsonPath("$[0].name", is("Test Product"))).andExpect(jsonPath("$[0].price", is(99.99)));
 	}
 
+	@Test
+	void shouldPaginateProductsWithCursor() throws Exception {
+		for (int i = 1; i <= 5; i++) {
+			productRepository.save(new Product("Product " + i, 10.0 * i, "Description " + i));
+		}
+
+		String cursor = mockMvc.perform(get("/api/products?limit=2")).andExpect(status().isOk())
+				.andExpect(jsonPath("$", hasSize(2))).andExpect(jsonPath("$[0].name", is("Product 1")))
+				.andExpect(header().exists(ProductController.NEXT_CURSOR_HEADER)).andReturn().getResponse()
+				.getHeader(ProductController.NEXT_CURSOR_HEADER);
+
+		cursor = mockMvc.perform(get("/api/products?limit=2&after=" + cursor)).andExpect(status().isOk())
+				.andExpect(jsonPath("$", hasSize(2))).andExpect(jsonPath("$[0].name", is("Product 3")))
+				.andReturn().getResponse().getHeader(ProductController.NEXT_CURSOR_HEADER);
+
+		mockMvc.perform(get("/api/products?limit=2&after=" + cursor)).andExpect(status().isOk())
+				.andExpect(jsonPath("$", hasSize(1))).andExpect(jsonPath("$[0].name", is("Product 5")))
+				.andExpect(header().doesNotExist(ProductController.NEXT_CURSOR_HEADER));
+	}
+
+	@Test
+	void shouldCapPageSizeAtServerMaximum() throws Exception {
+		for (int i = 1; i <= 101; i++) {
+			productRepository.save(new Product("Product " + i, 1.0, null));
+		}
+
+		mockMvc.perform(get("/api/products?limit=1000")).andExpect(status().isOk())
+				.andExpect(jsonPath("$", hasSize(100)))
+				.andExpect(header().exists(ProductController.NEXT_CURSOR_HEADER));
+	}
+
+	@Test
+	void shouldReturnBadRequestForInvalidCursor() throws Exception {
+		mockMvc.perform(get("/api/products?after=not-a-cursor")).andExpect(status().isBadRequest())
+				.andExpect(jsonPath("$.title", is("Bad Request")));
+	}
+
+	@Test
+	void shouldPaginatePriceRangeSortedByPrice() throws Exception {
+		productRepository.save(new Product("Cable", 5.0, null));
+		productRepository.save(new Product("Mouse", 30.0, null));
+		productRepository.save(new Product("Keyboard", 20.0, null));
+		productRepository.save(new Product("Headset", 20.0, null));
+		productRepository.save(new Product("Laptop", 1000.0, null));
+
+		String cursor = mockMvc.perform(get("/api/products?minPrice=10&maxPrice=100&sort=price&limit=2"))
+				.andExpect(status().isOk()).andExpect(jsonPath("$", hasSize(2)))
+				.andExpect(jsonPath("$[0].name", is("Keyboard"))).andExpect(jsonPath("$[1].name", is("Headset")))
+				.andReturn().getResponse().getHeader(ProductController.NEXT_CURSOR_HEADER);
+
+		mockMvc.perform(get("/api/products?minPrice=10&maxPrice=100&sort=price&limit=2&after=" + cursor))
+				.andExpect(status().isOk()).andExpect(jsonPath("$", hasSize(1)))
+				.andExpect(jsonPath("$[0].name", is("Mouse")))
+				.andExpect(header().doesNotExist(ProductController.NEXT_CURSOR_HEADER));
+	}
+
+	@Test
+	void shouldReturnBadRequestForInvertedPriceRange() throws Exception {
+		mockMvc.perform(get("/api/products?minPrice=100&maxPrice=10")).andExpect(status().isBadRequest())
+				.andExpect(jsonPath("$.detail", is("Parameter 'minPrice' must not be greater than 'maxPrice'")));
+	}
+
+	@Test
+	void shouldReturnOnlyRequestedFields() throws Exception {
+		Product saved = productRepository.save(new Product("Laptop", 999.99, "High performance laptop"));
+		productRepository.save(new Product("Mouse", 29.99, "Wireless mouse"));
+
+		String cursor = mockMvc.perform(get("/api/products?fields=id,name,price&limit=1"))
+				.andExpect(status().isOk()).andExpect(jsonPath("$", hasSize(1)))
+				.andExpect(jsonPath("$[0].name", is("Laptop"))).andExpect(jsonPath("$[0].price", is(999.99)))
+				.andExpect(jsonPath("$[0].description").doesNotExist())
+				.andExpect(jsonPath("$[0].version").doesNotExist()).andReturn().getResponse()
+				.getHeader(ProductController.NEXT_CURSOR_HEADER);
+
+		mockMvc.perform(get("/api/products?fields=name&limit=1&after=" + cursor)).andExpect(status().isOk())
+				.andExpect(jsonPath("$[0].name", is("Mouse"))).andExpect(jsonPath("$[0].id").doesNotExist());
+
+		mockMvc.perform(get("/api/products/" + saved.getId() + "?fields=name,description"))
+				.andExpect(status().isOk()).andExpect(jsonPath("$.description", is("High performance laptop")))
+				.andExpect(jsonPath("$.price").doesNotExist())
+				.andExpect(header().string(HttpHeaders.ETAG, "\"" + saved.getVersion() + "\""));
+
+		mockMvc.perform(get("/api/products/search?name=laptop&fields=id,price")).andExpect(status().isOk())
+				.andExpect(jsonPath("$", hasSize(1))).andExpect(jsonPath("$[0].id", is(saved.getId().intValue())))
+				.andExpect(jsonPath("$[0].name").doesNotExist());
+
+		mockMvc.perform(get("/api/products?fields=description&sort=price&limit=1")).andExpect(status().isOk())
+				.andExpect(jsonPath("$[0].description", is("Wireless mouse")))
+				.andExpect(jsonPath("$[0].name").doesNotExist())
+				.andExpect(header().exists(ProductController.NEXT_CURSOR_HEADER));
+
+		mockMvc.perform(get("/api/products/search?name=laptop&fields=name,description")).andExpect(status().isOk())
+				.andExpect(jsonPath("$[0].description", is("High performance laptop")))
+				.andExpect(jsonPath("$[0].price").doesNotExist());
+
+		mockMvc.perform(get("/api/products?fields=id,color")).andExpect(status().isBadRequest())
+				.andExpect(jsonPath("$.detail", is("Unknown product field: color")));
+	}
+
+	@Test
+	void shouldExportProductsAsNdjson() throws Exception {
+		productRepository.save(new Product("Laptop", 999.99, "High performance laptop"));
+		productRepository.save(new Product("Mouse", 29.99, "Wireless mouse"));
+
+		MvcResult result = mockMvc.perform(get("/api/products/export")).andExpect(request().asyncStarted())
+				.andReturn();
+
+		String body = mockMvc.perform(asyncDispatch(result)).andExpect(status().isOk())
+				.andExpect(content().contentType(MediaType.APPLICATION_NDJSON)).andReturn().getResponse()
+				.getContentAsString();
+
+		String[] lines = body.split("\n");
+		assertThat(lines).hasSize(2);
+		assertThat(lines[0]).contains("\"name\":\"Laptop\"");
+		assertThat(lines[1]).contains("\"name\":\"Mouse\"");
+	}
+
+	@Test
+	void shouldNegotiateBinaryFormats() throws Exception {
+		Product saved = productRepository.save(new Product("Laptop", 999.99, "High performance laptop"));
+		MediaType smile = MediaType.parseMediaType("application/x-jackson-smile");
+
+		byte[] cbor = mockMvc.perform(get("/api/products/" + saved.getId()).accept(MediaType.APPLICATION_CBOR))
+				.andExpect(status().isOk()).andExpect(content().contentType(MediaType.APPLICATION_CBOR)).andReturn()
+				.getResponse().getContentAsByteArray();
+		assertThat(CBORMapper.builder().build().readTree(cbor).get("name").asString()).isEqualTo("Laptop");
+
+		byte[] error = mockMvc.perform(get("/api/products/999").accept(smile)).andExpect(status().isNotFound())
+				.andExpect(content().contentType(smile)).andReturn().getResponse().getContentAsByteArray();
+		assertThat(SmileMapper.builder().build().readTree(error).get("status").asInt()).isEqualTo(404);
+
+		mockMvc.perform(get("/api/products/" + saved.getId())).andExpect(status().isOk())
+				.andExpect(content().contentTypeCompatibleWith(MediaType.APPLICATION_JSON));
+	}
+
+	@Test
+	void shouldTagEachFormatSeparately() throws Exception {
+		Product saved = productRepository.save(new Product("Laptop", 999.99, "High performance laptop"));
+		String json = "\"" + saved.getVersion() + "\"";
+		String cbor = "\"" + saved.getVersion() + "-cbor\"";
+
+		mockMvc.perform(get("/api/products/" + saved.getId())).andExpect(status().isOk())
+				.andExpect(header().string(HttpHeaders.ETAG, json))
+				.andExpect(header().string(HttpHeaders.VARY, containsString(HttpHeaders.ACCEPT)));
+		mockMvc.perform(get("/api/products/" + saved.getId()).accept(MediaType.APPLICATION_CBOR))
+				.andExpect(status().isOk()).andExpect(header().string(HttpHeaders.ETAG, cbor))
+				.andExpect(header().string(HttpHeaders.VARY, containsString(HttpHeaders.ACCEPT)));
+
+		// A JSON tag does not validate a CBOR response, and vice versa
+		mockMvc.perform(get("/api/products/" + saved.getId()).accept(MediaType.APPLICATION_CBOR)
+				.header(HttpHeaders.IF_NONE_MATCH, json)).andExpect(status().isOk());
+		mockMvc.perform(get("/api/products/" + saved.getId()).accept(MediaType.APPLICATION_CBOR)
+				.header(HttpHeaders.IF_NONE_MATCH, cbor)).andExpect(status().isNotModified());
+
+		// Every format's tag of the current version satisfies If-Match
+		mockMvc.perform(delete("/api/products/" + saved.getId()).header(HttpHeaders.IF_MATCH, cbor))
+				.andExpect(status().isNoContent());
+	}
+
+	@Test
+	void shouldNotServeEncodedBodyAfterWrite() throws Exception {
+		Product saved = productRepository.save(new Product("Laptop", 999.99, "High performance laptop"));
+
+		mockMvc.perform(get("/api/products/" + saved.getId()).accept(MediaType.APPLICATION_JSON))
+				.andExpect(status().isOk()).andExpect(jsonPath("$.name", is("Laptop")));
+		mockMvc.perform(patch("/api/products/" + saved.getId()).contentType(MediaType.APPLICATION_JSON)
+				.content("{\"name\":\"Laptop Pro\"}")).andExpect(status().isOk());
+
+		mockMvc.perform(get("/api/products/" + saved.getId())).andExpect(status().isOk())
+				.andExpect(content().contentTypeCompatibleWith(MediaType.APPLICATION_JSON))
+				.andExpect(header().string(HttpHeaders.ETAG, "\"1\"")).andExpect(jsonPath("$.name", is("Laptop Pro")));
+	}
+
 	@Test
 	void shouldCreateProduct() throws Exception {
 		String productJson = """
@@ -56,6 +238,47 @@ class ProductControllerTest {
 				.andExpect(jsonPath("$.price", is(149.99))).andExpect(jsonPath("$.id", notNullValue()));
 	}
 
+	@Test
+	void shouldApplyBatchAndReportPerItemResults() throws Exception {
+		Product existing = productRepository.save(new Product("Existing", 10.0, "Existing product"));
+		Product removed = productRepository.save(new Product("Removed", 20.0, "Removed product"));
+
+		String batchJson = """
+				{
+				    "create": [
+				        { "name": "Batch 1", "price": 1.0 },
+				        { "name": "", "price": -1.0 },
+				        { "name": "Batch 2", "price": 2.0 }
+				    ],
+				    "update": [
+				        { "id": %d, "name": "Existing Updated", "price": 11.0 },
+				        { "id": 999, "name": "Missing", "price": 1.0 }
+				    ],
+				    "delete": [%d, 998]
+				}
+				""".formatted(existing.getId(), removed.getId());
+
+		mockMvc.perform(post("/api/products/batch").contentType(MediaType.APPLICATION_JSON).content(batchJson))
+				.andExpect(status().isOk()).andExpect(jsonPath("$.succeeded", is(4)))
+				.andExpect(jsonPath("$.failed", is(3))).andExpect(jsonPath("$.results", hasSize(7)))
+				.andExpect(jsonPath("$.results[0].operation", is("CREATE")))
+				.andExpect(jsonPath("$.results[0].index", is(1))).andExpect(jsonPath("$.results[0].status", is(400)))
+				.andExpect(jsonPath("$.results[0].errors.name", is("Product name is required")))
+				.andExpect(jsonPath("$.results[1].status", is(201)))
+				.andExpect(jsonPath("$.results[1].id", notNullValue()))
+				.andExpect(jsonPath("$.results[3].operation", is("UPDATE")))
+				.andExpect(jsonPath("$.results[3].status", is(200)))
+				.andExpect(jsonPath("$.results[4].status", is(404)))
+				.andExpect(jsonPath("$.results[5].operation", is("DELETE")))
+				.andExpect(jsonPath("$.results[5].status", is(204)))
+				.andExpect(jsonPath("$.results[6].status", is(404)));
+
+		assertThat(productRepository.findById(existing.getId())).get().extracting(Product::getName)
+				.isEqualTo("Existing Updated");
+		assertThat(productRepository.existsById(removed.getId())).isFalse();
+		assertThat(productRepository.count()).isEqualTo(3);
+	}
+
 	@Test
 	void shouldGetProductById() throws Exception {
 		Product product = new Product("Test Product", 99.99, "Test Description");
@@ -70,6 +293,21 @@ class ProductControllerTest {
 		mockMvc.perform(get("/api/products/999")).andExpect(status().isNotFound());
 	}
 
+	@Test
+	void shouldRecordRepositoryErrorAndHibernateMetrics() throws Exception {
+		double notFound = meterRegistry.get("api.errors").tag("exception", "ResourceNotFoundException")
+				.tag("status", "404").counter().count();
+
+		mockMvc.perform(get("/api/products/998")).andExpect(status().isNotFound());
+
+		assertThat(meterRegistry.get("api.errors").tag("exception", "ResourceNotFoundException").tag("status", "404")
+				.counter().count()).isEqualTo(notFound + 1);
+		assertThat(meterRegistry.get("spring.data.repository.invocations").tag("repository", "ProductRepository")
+				.tag("method", "findById").timer().count()).isPositive();
+		assertThat(meterRegistry.get("hibernate.entities.loads").functionCounter()).isNotNull();
+		assertThat(meterRegistry.get("hibernate.query.executions.max").timeGauge()).isNotNull();
+	}
+
 	@Test
 	void shouldUpdateProduct() throws Exception {
 		Product product = new Product("Original Product", 99.99, "Original Description");
@@ -89,11 +327,130 @@ class ProductControllerTest {
 				.andExpect(jsonPath("$.price", is(199.99)));
 	}
 
+	@Test
+	void shouldPatchOnlySuppliedFields() throws Exception {
+		Product saved = productRepository.save(new Product("Original Product", 99.99, "Original Description"));
+
+		mockMvc.perform(get("/api/products/" + saved.getId())).andExpect(status().isOk());
+
+		mockMvc.perform(patch("/api/products/" + saved.getId()).contentType(MediaType.APPLICATION_JSON)
+				.content("{\"price\": 79.99}")).andExpect(status().isOk())
+				.andExpect(jsonPath("$.name", is("Original Product"))).andExpect(jsonPath("$.price", is(79.99)))
+				.andExpect(jsonPath("$.description", is("Original Description")))
+				.andExpect(header().string(HttpHeaders.ETAG, "\"" + (saved.getVersion() + 1) + "\""));
+
+		mockMvc.perform(patch("/api/products/" + saved.getId()).contentType(MediaType.APPLICATION_JSON)
+				.content("{\"description\": null}")).andExpect(status().isOk())
+				.andExpect(jsonPath("$.description", nullValue()));
+
+		mockMvc.perform(get("/api/products/" + saved.getId())).andExpect(status().isOk())
+				.andExpect(jsonPath("$.price", is(79.99))).andExpect(jsonPath("$.description", nullValue()));
+	}
+
+	@Test
+	void shouldRejectInvalidOrStalePatch() throws Exception {
+		Product saved = productRepository.save(new Product("Patched Product", 10.0, "Patched"));
+		String staleEtag = "\"" + (saved.getVersion() + 1) + "\"";
+
+		mockMvc.perform(patch("/api/products/" + saved.getId()).contentType(MediaType.APPLICATION_JSON)
+				.content("{\"name\": \" \", \"price\": -1}")).andExpect(status().isBadRequest())
+				.andExpect(jsonPath("$.errors.name", is("Product name is required")))
+				.andExpect(jsonPath("$.errors.price", is("Product price must be greater than or equal to 0")));
+
+		mockMvc.perform(patch("/api/products/" + saved.getId()).contentType(MediaType.APPLICATION_JSON)
+				.content("{\"price\": null}")).andExpect(status().isBadRequest())
+				.andExpect(jsonPath("$.title", is("Malformed Request")));
+
+		mockMvc.perform(patch("/api/products/" + saved.getId()).header(HttpHeaders.IF_MATCH, staleEtag)
+				.contentType(MediaType.APPLICATION_JSON).content("{\"price\": 11.0}"))
+				.andExpect(status().isPreconditionFailed());
+
+		mockMvc.perform(patch("/api/products/999").contentType(MediaType.APPLICATION_JSON)
+				.content("{\"price\": 11.0}")).andExpect(status().isNotFound());
+
+		assertThat(productRepository.findById(saved.getId())).get().extracting(Product::getPrice).isEqualTo(10.0);
+	}
+
+	@Test
+	void shouldEvictCachedProductOnUpdate() throws Exception {
+		Product saved = productRepository.save(new Product("Cached Product", 10.0, "Cached"));
+
+		mockMvc.perform(get("/api/products/" + saved.getId())).andExpect(status().isOk())
+				.andExpect(jsonPath("$.name", is("Cached Product")));
+
+		String updatedJson = """
+				{
+				    "name": "Fresh Product",
+				    "price": 12.0,
+				    "description": "Fresh"
+				}
+				""";
+
+		mockMvc.perform(
+				put("/api/products/" + saved.getId()).contentType(MediaType.APPLICATION_JSON).content(updatedJson))
+				.andExpect(status().isOk());
+
+		mockMvc.perform(get("/api/products/" + saved.getId())).andExpect(status().isOk())
+				.andExpect(jsonPath("$.name", is("Fresh Product")));
+
+		assertThat(meterRegistry.get("cache.gets").tag("cache", "products").tag("result", "hit").functionCounter())
+				.isNotNull();
+	}
+
+	@Test
+	void shouldReturnNotModifiedForMatchingETag() throws Exception {
+		Product saved = productRepository.save(new Product("Tagged Product", 10.0, "Tagged"));
+
+		String etag = mockMvc.perform(get("/api/products/" + saved.getId())).andExpect(status().isOk())
+				.andExpect(header().exists(HttpHeaders.ETAG)).andReturn().getResponse().getHeader(HttpHeaders.ETAG);
+
+		mockMvc.perform(get("/api/products/" + saved.getId()).header(HttpHeaders.IF_NONE_MATCH, etag))
+				.andExpect(status().isNotModified()).andExpect(content().string(""));
+
+		String listEtag = mockMvc.perform(get("/api/products")).andExpect(status().isOk()).andReturn().getResponse()
+				.getHeader(HttpHeaders.ETAG);
+
+		mockMvc.perform(get("/api/products").header(HttpHeaders.IF_NONE_MATCH, listEtag))
+				.andExpect(status().isNotModified());
+	}
+
+	@Test
+	void shouldRejectUpdateAndDeleteWithStaleETag() throws Exception {
+		Product saved = productRepository.save(new Product("Versioned Product", 10.0, "Versioned"));
+		String etag = "\"" + saved.getVersion() + "\"";
+
+		String updatedJson = """
+				{
+				    "name": "Versioned Product",
+				    "price": 11.0
+				}
+				""";
+
+		String newEtag = mockMvc
+				.perform(put("/api/products/" + saved.getId()).header(HttpHeaders.IF_MATCH, etag)
+						.contentType(MediaType.APPLICATION_JSON).content(updatedJson))
+				.andExpect(status().isOk()).andExpect(header().string(HttpHeaders.ETAG, not(etag))).andReturn()
+				.getResponse().getHeader(HttpHeaders.ETAG);
+
+		mockMvc.perform(put("/api/products/" + saved.getId()).header(HttpHeaders.IF_MATCH, etag)
+				.contentType(MediaType.APPLICATION_JSON).content(updatedJson))
+				.andExpect(status().isPreconditionFailed()).andExpect(jsonPath("$.title", is("Precondition Failed")))
+				.andExpect(jsonPath("$.status", is(412)));
+
+		mockMvc.perform(delete("/api/products/" + saved.getId()).header(HttpHeaders.IF_MATCH, etag))
+				.andExpect(status().isPreconditionFailed());
+
+		mockMvc.perform(delete("/api/products/" + saved.getId()).header(HttpHeaders.IF_MATCH, newEtag))
+				.andExpect(status().isNoContent());
+	}
+
 	@Test
 	void shouldDeleteProduct() throws Exception {
 		Product product = new Product("Test Product", 99.99, "Test Description");
 		Product saved = productRepository.save(product);
 
+		mockMvc.perform(get("/api/products/" + saved.getId())).andExpect(status().isOk());
+
 		mockMvc.perform(delete("/api/products/" + saved.getId())).andExpect(status().isNoContent());
 
 		mockMvc.perform(get("/api/products/" + saved.getId())).andExpect(status().isNotFound());
@@ -110,6 +467,38 @@ class ProductControllerTest {
 				.andExpect(jsonPath("$[*].name", hasItem(containsString("Laptop"))));
 	}
 
+	@Test
+	void shouldRankAndLimitSearchResults() throws Exception {
+		productRepository.save(new Product("Gaming Laptop", 1499.99, "Gaming laptop"));
+		productRepository.save(new Product("Laptop", 899.99, "Plain laptop"));
+		productRepository.save(new Product("Laptop Pro", 999.99, "High end laptop"));
+
+		mockMvc.perform(get("/api/products/search?name=laptop&limit=2")).andExpect(status().isOk())
+				.andExpect(jsonPath("$", hasSize(2))).andExpect(jsonPath("$[0].name", is("Laptop")))
+				.andExpect(jsonPath("$[1].name", is("Laptop Pro")));
+	}
+
+	@Test
+	void shouldMaintainCatalogStatsAcrossWrites() throws Exception {
+		Product mouse = productRepository.save(new Product("Mouse", 29.99, "Wireless mouse"));
+		Product laptop = productRepository.save(new Product("Laptop", 999.99, "Plain laptop"));
+		productRepository.save(new Product("Monitor", 249.99, "27 inch monitor"));
+
+		mockMvc.perform(put("/api/products/" + laptop.getId()).contentType(MediaType.APPLICATION_JSON)
+				.content("""
+						{"name": "Laptop", "price": 1299.99, "description": "Plain laptop"}
+						""")).andExpect(status().isOk());
+		mockMvc.perform(delete("/api/products/" + mouse.getId())).andExpect(status().isNoContent());
+
+		mockMvc.perform(get("/api/products/stats")).andExpect(status().isOk()).andExpect(jsonPath("$.count", is(2)))
+				.andExpect(jsonPath("$.minPrice", is(249.99))).andExpect(jsonPath("$.maxPrice", is(1299.99)))
+				.andExpect(jsonPath("$.averagePrice", is(774.99)))
+				.andExpect(jsonPath("$.priceBuckets[*].count", contains(0, 0, 0, 1, 0, 1)))
+				.andExpect(jsonPath("$.priceBuckets[3].from", is(100.0)))
+				.andExpect(jsonPath("$.priceBuckets[3].to", is(500.0)))
+				.andExpect(jsonPath("$.priceBuckets[5].to", nullValue()));
+	}
+
 	// Error Handling Tests
 
 	@Test
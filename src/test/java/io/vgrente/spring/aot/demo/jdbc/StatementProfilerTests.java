@@ -0,0 +1,105 @@
+package io.vgrente.spring.aot.demo.jdbc;
+
+import java.time.Duration;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.Executor;
+import java.util.concurrent.Executors;
+import java.util.concurrent.TimeUnit;
+
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import org.junit.jupiter.api.Test;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+class StatementProfilerTests {
+
+	private final StatementProfiler profiler = new StatementProfiler(new SimpleMeterRegistry(), 3,
+			Duration.ofMillis(100), 2, 3);
+
+	@Test
+	void shouldFingerprintLiteralsAndInLists() {
+		assertThat(SqlFingerprints.of("select * from products where name = 'it''s'  and price <\n 12.5"))
+				.isEqualTo("select * from products where name = ? and price < ?");
+		assertThat(SqlFingerprints.of("select p1_0.id from products p1_0 where p1_0.id in (?,?,?)"))
+				.isEqualTo(SqlFingerprints.of("select p1_0.id from products p1_0 where p1_0.id in (1, 2)"))
+				.isEqualTo("select p1_0.id from products p1_0 where p1_0.id in (?+)");
+	}
+
+	@Test
+	void shouldAggregateExecutionsPerFingerprint() {
+		String fingerprint = profiler.fingerprint("select * from products where id = 1");
+		profiler.record(fingerprint, TimeUnit.MILLISECONDS.toNanos(1));
+		profiler.record(profiler.fingerprint("select * from products where id = 2"), TimeUnit.MILLISECONDS.toNanos(3));
+
+		StatementProfiler.StatementReport report = profiler.report().statements().getFirst();
+		assertThat(report.fingerprint()).isEqualTo("select * from products where id = ?");
+		assertThat(report.count()).isEqualTo(2);
+		assertThat(report.totalMillis()).isEqualTo(4.0);
+		assertThat(report.maxMillis()).isEqualTo(3.0);
+		assertThat(report.p50Millis()).isBetween(1.0, 1.25);
+		assertThat(report.p99Millis()).isBetween(3.0, 3.75);
+	}
+
+	@Test
+	void shouldFoldFingerprintsBeyondTheLimit() {
+		for (int i = 0; i < 5; i++) {
+			profiler.record("select " + "x".repeat(i), 1_000);
+		}
+
+		assertThat(profiler.report().statements()).hasSize(4)
+				.anySatisfy(report -> assertThat(report.fingerprint()).isEqualTo(StatementProfiler.OTHER));
+	}
+
+	@Test
+	void shouldKeepMostRecentSlowStatements() {
+		profiler.beginRequest("GET /api/products");
+		profiler.record("a", TimeUnit.MILLISECONDS.toNanos(150));
+		profiler.record("b", TimeUnit.MILLISECONDS.toNanos(50));
+		profiler.endRequest();
+		profiler.record("c", TimeUnit.MILLISECONDS.toNanos(200));
+		profiler.record("d", TimeUnit.MILLISECONDS.toNanos(300));
+
+		assertThat(profiler.report().slowStatements()).extracting(StatementProfiler.SlowStatement::fingerprint)
+				.containsExactly("d", "c");
+		profiler.reset();
+		assertThat(profiler.report().slowStatements()).isEmpty();
+	}
+
+	@Test
+	void shouldReportStatementsRepeatedWithinOneRequest() {
+		profiler.beginRequest("GET /api/products");
+		for (int i = 0; i < 3; i++) {
+			profiler.record("select * from products where id = ?", 1_000);
+		}
+		profiler.record("select count(*) from products", 1_000);
+		profiler.endRequest();
+		profiler.record("select * from products where id = ?", 1_000);
+
+		assertThat(profiler.report().repeatedStatements()).singleElement().satisfies(repeated -> {
+			assertThat(repeated.request()).isEqualTo("GET /api/products");
+			assertThat(repeated.fingerprint()).isEqualTo("select * from products where id = ?");
+			assertThat(repeated.count()).isEqualTo(3);
+		});
+	}
+
+	@Test
+	void shouldCountStatementsOfPropagatedTasksTowardTheRequest() {
+		Executor loader = profiler.propagating(Executors.newVirtualThreadPerTaskExecutor());
+
+		profiler.beginRequest("GET /api/products/1");
+		profiler.record("select * from products where id = ?", 1_000);
+		CompletableFuture.runAsync(() -> {
+			profiler.record("select * from products where id = ?", 1_000);
+			profiler.record("select * from products where id = ?", 1_000);
+		}, loader).join();
+		profiler.endRequest();
+		CompletableFuture.runAsync(() -> profiler.record("select * from products where id = ?", 1_000), loader)
+				.join();
+
+		assertThat(profiler.report().repeatedStatements()).singleElement().satisfies(repeated -> {
+			assertThat(repeated.request()).isEqualTo("GET /api/products/1");
+			assertThat(repeated.count()).isEqualTo(3);
+		});
+	}
+
+}
@@ -0,0 +1,101 @@
+package io.vgrente.spring.aot.demo.jfr;
+
+import java.io.InputStream;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardCopyOption;
+import java.util.List;
+
+import io.vgrente.spring.aot.demo.model.Product;
+import io.vgrente.spring.aot.demo.repository.ProductRepository;
+import jdk.jfr.consumer.RecordedEvent;
+import jdk.jfr.consumer.RecordingFile;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.actuate.endpoint.web.WebEndpointResponse;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.core.io.Resource;
+import org.springframework.test.web.servlet.MockMvc;
+import org.springframework.test.web.servlet.setup.MockMvcBuilders;
+import org.springframework.web.context.WebApplicationContext;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.get;
+import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.status;
+
+@SpringBootTest
+class FlightRecordingTests {
+
+	private MockMvc mockMvc;
+
+	@Autowired
+	private WebApplicationContext webApplicationContext;
+
+	@Autowired
+	private ProductRepository productRepository;
+
+	@Autowired
+	private FlightRecordingEndpoint endpoint;
+
+	@TempDir
+	private Path tempDir;
+
+	@BeforeEach
+	void setUp() {
+		mockMvc = MockMvcBuilders.webAppContextSetup(webApplicationContext).build();
+		productRepository.deleteAll();
+	}
+
+	@AfterEach
+	void tearDown() {
+		endpoint.stop();
+	}
+
+	@Test
+	void shouldRecordRequestPhases() throws Exception {
+		Long id = productRepository.save(new Product("Laptop", 999.99, null)).getId();
+		assertThat(endpoint.start(null, null).getStatus()).isEqualTo(WebEndpointResponse.STATUS_OK);
+
+		mockMvc.perform(get("/api/products/search?name=laptop")).andExpect(status().isOk());
+		mockMvc.perform(get("/api/products/" + (id + 1000))).andExpect(status().isNotFound());
+		assertThat(endpoint.stop().getBody().state()).isEqualTo("STOPPED");
+
+		List<RecordedEvent> events = dump();
+		assertThat(events).anySatisfy(event -> {
+			assertThat(event.getEventType().getName()).isEqualTo("io.vgrente.spring.aot.demo.ProductRequest");
+			assertThat(event.getString("handler")).isEqualTo("searchProducts");
+			assertThat(event.getString("path")).isEqualTo("/api/products/search");
+			assertThat(event.getInt("status")).isEqualTo(200);
+		}).anySatisfy(event -> {
+			assertThat(event.getEventType().getName()).isEqualTo("io.vgrente.spring.aot.demo.RepositoryCall");
+			assertThat(event.getString("repository")).isEqualTo("ProductRepository");
+		}).anySatisfy(event -> {
+			assertThat(event.getEventType().getName())
+					.isEqualTo("io.vgrente.spring.aot.demo.ResponseSerialization");
+			assertThat(event.getString("format")).isEqualTo("json");
+		}).anySatisfy(event -> {
+			assertThat(event.getEventType().getName()).isEqualTo("io.vgrente.spring.aot.demo.ExceptionHandling");
+			assertThat(event.getInt("status")).isEqualTo(404);
+			assertThat(event.getBoolean("handled")).isTrue();
+		});
+	}
+
+	@Test
+	void shouldRejectUnknownSettings() {
+		assertThat(endpoint.start("no-such-settings", null).getStatus())
+				.isEqualTo(WebEndpointResponse.STATUS_BAD_REQUEST);
+	}
+
+	private List<RecordedEvent> dump() throws Exception {
+		Resource resource = endpoint.dump("dump").getBody();
+		Path file = tempDir.resolve("recording.jfr");
+		try (InputStream in = resource.getInputStream()) {
+			Files.copy(in, file, StandardCopyOption.REPLACE_EXISTING);
+		}
+		return RecordingFile.readAllEvents(file);
+	}
+
+}
@@ -0,0 +1,88 @@
+package io.vgrente.spring.aot.demo.json;
+
+import java.time.Instant;
+import java.util.EnumSet;
+import java.util.Map;
+
+import io.vgrente.spring.aot.demo.error.ErrorResponse;
+import io.vgrente.spring.aot.demo.model.Product;
+import io.vgrente.spring.aot.demo.model.ProductField;
+import io.vgrente.spring.aot.demo.model.ProductSummary;
+import io.vgrente.spring.aot.demo.model.ProductView;
+import org.junit.jupiter.api.Test;
+import tools.jackson.databind.DatabindException;
+import tools.jackson.databind.DeserializationFeature;
+import tools.jackson.databind.json.JsonMapper;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.assertThatExceptionOfType;
+
+class ProductJsonModuleTests {
+
+	private final JsonMapper reflective = JsonMapper.builder().build();
+
+	private final JsonMapper mapper = JsonMapper.builder().addModule(new ProductJsonModule()).build();
+
+	@Test
+	void shouldWriteProductExactlyLikeReflectiveSerializer() {
+		Product product = new Product("Laptop \"Pro\"", 999.99, "High performance laptop");
+		product.setId(42L);
+		product.setVersion(3L);
+
+		assertThat(mapper.writeValueAsString(product)).isEqualTo(reflective.writeValueAsString(product));
+		assertThat(mapper.writeValueAsString(new Product()))
+				.isEqualTo(reflective.writeValueAsString(new Product()));
+	}
+
+	@Test
+	void shouldWriteErrorResponseExactlyLikeReflectiveSerializer() {
+		ErrorResponse full = ErrorResponse.builder().type("about:blank").title("Validation Failed").status(400)
+				.detail("Request validation failed").instance("/api/products")
+				.timestamp(Instant.parse("2025-01-02T03:04:05.678Z")).errors(Map.of("price", "must be positive"))
+				.build();
+		ErrorResponse minimal = ErrorResponse.builder().title("Not Found").status(404).timestamp(null).build();
+
+		assertThat(mapper.writeValueAsString(full)).isEqualTo(reflective.writeValueAsString(full));
+		assertThat(mapper.writeValueAsString(minimal)).isEqualTo(reflective.writeValueAsString(minimal));
+	}
+
+	@Test
+	void shouldWriteOnlySelectedFieldsOfProductView() {
+		Product product = new Product("Laptop", 999.99, "High performance laptop");
+		product.setId(42L);
+		product.setVersion(3L);
+
+		assertThat(mapper.writeValueAsString(
+				ProductView.of(ProductSummary.of(product), EnumSet.of(ProductField.PRICE, ProductField.ID))))
+				.isEqualTo("{\"id\":42,\"price\":999.99}");
+		assertThat(mapper.writeValueAsString(ProductView.of(product, EnumSet.allOf(ProductField.class))))
+				.isEqualTo(reflective.writeValueAsString(product));
+	}
+
+	@Test
+	void shouldReadProductIgnoringVersionAndCoercingScalars() {
+		Product product = mapper.readValue(
+				"{\"id\":7,\"name\":\"Mouse\",\"price\":\"29.5\",\"description\":null,\"version\":9}", Product.class);
+
+		assertThat(product.getId()).isEqualTo(7L);
+		assertThat(product.getName()).isEqualTo("Mouse");
+		assertThat(product.getPrice()).isEqualTo(29.5);
+		assertThat(product.getDescription()).isNull();
+		assertThat(product.getVersion()).isNull();
+	}
+
+	@Test
+	void shouldHandleUnknownAndInvalidPropertiesLikeReflectiveDeserializer() {
+		String unknown = "{\"name\":\"Mouse\",\"price\":1,\"color\":{\"r\":1}}";
+		JsonMapper lenient = mapper.rebuild().disable(DeserializationFeature.FAIL_ON_UNKNOWN_PROPERTIES).build();
+		JsonMapper strict = mapper.rebuild().enable(DeserializationFeature.FAIL_ON_UNKNOWN_PROPERTIES).build();
+
+		assertThat(lenient.readValue(unknown, Product.class).getName()).isEqualTo("Mouse");
+		assertThatExceptionOfType(DatabindException.class).isThrownBy(() -> strict.readValue(unknown, Product.class));
+		assertThatExceptionOfType(DatabindException.class)
+				.isThrownBy(() -> mapper.readValue("{\"price\":\"abc\"}", Product.class));
+		assertThatExceptionOfType(DatabindException.class)
+				.isThrownBy(() -> mapper.readValue("[\"Mouse\"]", Product.class));
+	}
+
+}
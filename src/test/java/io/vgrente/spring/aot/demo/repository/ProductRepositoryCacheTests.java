@@ -0,0 +1,70 @@
+package io.vgrente.spring.aot.demo.repository;
+
+import io.vgrente.spring.aot.demo.model.Product;
+import io.vgrente.spring.aot.demo.service.ProductWriteService;
+import jakarta.persistence.EntityManagerFactory;
+import org.hibernate.SessionFactory;
+import org.hibernate.stat.Statistics;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.context.SpringBootTest;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+@SpringBootTest
+class ProductRepositoryCacheTests {
+
+	@Autowired
+	private ProductRepository productRepository;
+
+	@Autowired
+	private ProductWriteService productWriteService;
+
+	@Autowired
+	private EntityManagerFactory entityManagerFactory;
+
+	private Statistics statistics;
+
+	@BeforeEach
+	void setUp() {
+		productRepository.deleteAll();
+		statistics = entityManagerFactory.unwrap(SessionFactory.class).getStatistics();
+		statistics.clear();
+	}
+
+	@Test
+	void shouldServeRepeatedFindByIdFromEntityCache() {
+		Long id = productRepository.save(new Product("Laptop", 999.99, null)).getId();
+
+		productRepository.findById(id);
+		productRepository.findById(id);
+
+		assertThat(statistics.getSecondLevelCacheHitCount()).isGreaterThanOrEqualTo(2);
+		assertThat(statistics.getEntityLoadCount()).isZero();
+	}
+
+	@Test
+	void shouldInvalidateEntityCacheOnBulkUpdate() {
+		Long id = productRepository.save(new Product("Laptop", 999.99, null)).getId();
+		productRepository.findById(id);
+
+		productWriteService.replace(id, new Product("Laptop Pro", 1299.99, null), null);
+
+		assertThat(productRepository.findById(id)).map(Product::getName).hasValue("Laptop Pro");
+	}
+
+	@Test
+	void shouldServeRepeatedSearchFromQueryCacheUntilWrite() {
+		productRepository.save(new Product("Gaming Laptop", 1499.99, null));
+
+		assertThat(productRepository.findByNameContainingIgnoreCase("laptop")).hasSize(1);
+		assertThat(productRepository.findByNameContainingIgnoreCase("laptop")).hasSize(1);
+		assertThat(statistics.getQueryCacheHitCount()).isEqualTo(1);
+
+		productRepository.save(new Product("Laptop Stand", 49.99, null));
+
+		assertThat(productRepository.findByNameContainingIgnoreCase("laptop")).hasSize(2);
+	}
+
+}
@@ -0,0 +1,79 @@
+package io.vgrente.spring.aot.demo.service;
+
+import java.time.Duration;
+
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import io.vgrente.spring.aot.demo.event.ProductChangedEvent;
+import io.vgrente.spring.aot.demo.json.ProductJsonModule;
+import io.vgrente.spring.aot.demo.model.Product;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import tools.jackson.databind.json.JsonMapper;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+class ProductChangeFeedTests {
+
+	private ProductChangeFeed feed;
+
+	@BeforeEach
+	void setUp() {
+		feed = new ProductChangeFeed(JsonMapper.builder().addModule(new ProductJsonModule()).build(),
+				new SimpleMeterRegistry(), 3, Duration.ofSeconds(15), Duration.ofMinutes(30));
+	}
+
+	@Test
+	void shouldNumberAndEncodeChanges() throws InterruptedException {
+		Product product = new Product("Laptop", 999.99, null);
+		product.setId(7L);
+		product.setVersion(0L);
+		feed.onProductChanged(ProductChangedEvent.created(product));
+		feed.onProductChanged(ProductChangedEvent.deleted(7L, 9.99));
+
+		ProductChangeFeed.Batch batch = feed.awaitAfter(0, Duration.ZERO);
+
+		assertThat(batch.behind()).isFalse();
+		assertThat(batch.changes()).extracting(ProductChangeFeed.Change::sequence).containsExactly(1L, 2L);
+		assertThat(batch.changes()).extracting(ProductChangeFeed.Change::name).containsExactly("created", "deleted");
+		assertThat(batch.changes().getFirst().data()).contains("\"type\":\"CREATED\"", "\"id\":7",
+				"\"name\":\"Laptop\"");
+		assertThat(batch.changes().getLast().data()).isEqualTo("{\"type\":\"DELETED\",\"id\":7}");
+	}
+
+	@Test
+	void shouldResumeAfterLastEventId() throws InterruptedException {
+		for (long id = 1; id <= 3; id++) {
+			feed.onProductChanged(ProductChangedEvent.deleted(id, 9.99));
+		}
+
+		assertThat(feed.awaitAfter(2, Duration.ZERO).changes()).extracting(ProductChangeFeed.Change::sequence)
+				.containsExactly(3L);
+	}
+
+	@Test
+	void shouldReportSubscribersThatFellOutOfTheBuffer() throws InterruptedException {
+		for (long id = 1; id <= 5; id++) {
+			feed.onProductChanged(ProductChangedEvent.deleted(id, 9.99));
+		}
+
+		// Sequences 1 and 2 have been overwritten; 2 is still a valid resume point
+		assertThat(feed.awaitAfter(1, Duration.ZERO).behind()).isTrue();
+		assertThat(feed.awaitAfter(2, Duration.ZERO).changes()).hasSize(3);
+		// Ids from before a restart are ahead of the feed
+		assertThat(feed.awaitAfter(42, Duration.ZERO)).satisfies(batch -> {
+			assertThat(batch.behind()).isTrue();
+			assertThat(batch.last()).isEqualTo(5L);
+		});
+	}
+
+	@Test
+	void shouldWakeWaitingSubscriberOnAppend() throws InterruptedException {
+		Thread writer = Thread.ofVirtual().start(() -> feed.onProductChanged(ProductChangedEvent.deleted(1L, 9.99)));
+
+		ProductChangeFeed.Batch batch = feed.awaitAfter(0, Duration.ofSeconds(10));
+		writer.join();
+
+		assertThat(batch.changes()).hasSize(1);
+	}
+
+}
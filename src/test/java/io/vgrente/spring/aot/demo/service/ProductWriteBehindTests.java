@@ -0,0 +1,159 @@
+package io.vgrente.spring.aot.demo.service;
+
+import java.io.IOException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+
+import io.vgrente.spring.aot.demo.event.ProductChangedEvent;
+import io.vgrente.spring.aot.demo.exception.ValidationException;
+import io.vgrente.spring.aot.demo.model.Product;
+import io.vgrente.spring.aot.demo.repository.ProductRepository;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.test.context.DynamicPropertyRegistry;
+import org.springframework.test.context.DynamicPropertySource;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.assertThatExceptionOfType;
+
+@SpringBootTest
+class ProductWriteBehindTests {
+
+	private static Path log;
+
+	private static Path deadLetter;
+
+	@Autowired
+	private ProductWriteBehind writeBehind;
+
+	@Autowired
+	private ProductRepository productRepository;
+
+	@DynamicPropertySource
+	static void writeBehindProperties(DynamicPropertyRegistry registry) throws IOException {
+		Path directory = Files.createTempDirectory("write-behind");
+		log = directory.resolve("product-writes.log");
+		deadLetter = directory.resolve("product-writes.dead");
+		// Own database, so recreating the schema does not reset the one that the
+		// cached contexts of other test classes share
+		registry.add("spring.datasource.url", () -> "jdbc:h2:mem:write-behind");
+		registry.add("app.products.write-behind.enabled", () -> "true");
+		registry.add("app.products.write-behind.log", log::toString);
+		registry.add("app.products.write-behind.dead-letter", deadLetter::toString);
+		registry.add("app.products.write-behind.max-attempts", () -> "2");
+		registry.add("app.products.write-behind.queue-timeout", () -> "5s");
+	}
+
+	@Test
+	void shouldApplyAcknowledgedWritesInGroups() {
+		Product created = writeBehind.create(new Product("Dock", 129.0, null));
+		Product doomed = writeBehind.create(new Product("Cable", 9.99, null));
+		writeBehind.replace(created.getId(), new Product("Dock Pro", 149.0, "Two displays"));
+		writeBehind.delete(doomed.getId());
+
+		assertThat(created.getVersion()).isZero();
+		assertThat(doomed.getId()).isNotEqualTo(created.getId());
+
+		writeBehind.awaitFlushed();
+
+		assertThat(productRepository.findById(created.getId())).hasValueSatisfying(product -> {
+			assertThat(product.getName()).isEqualTo("Dock Pro");
+			assertThat(product.getDescription()).isEqualTo("Two displays");
+			assertThat(product.getVersion()).isEqualTo(1L);
+		});
+		assertThat(productRepository.existsById(doomed.getId())).isFalse();
+	}
+
+	@Test
+	void shouldRejectInvalidWritesBeforeLoggingThem() {
+		assertThatExceptionOfType(ValidationException.class)
+				.isThrownBy(() -> writeBehind.create(new Product("x".repeat(256), 1.0, null)))
+				.withMessage("Product name must be at most 255 characters");
+	}
+
+	@Test
+	void shouldMoveEntriesTheDatabaseKeepsRejectingToDeadLetterFile() throws IOException {
+		Product hub = writeBehind.create(new Product("Hub", 39.0, null));
+		// Bypasses validation, like an entry logged before a constraint existed
+		writeBehind.append(new ProductWriteBehind.Entry(ProductChangedEvent.Type.UPDATED, hub.getId(),
+				"x".repeat(256), 39.0, null));
+		writeBehind.replace(hub.getId(), new Product("Hub Pro", 49.0, null));
+
+		writeBehind.awaitFlushed();
+
+		assertThat(productRepository.findById(hub.getId())).map(Product::getName).hasValue("Hub Pro");
+		assertThat(Files.readAllLines(deadLetter)).singleElement().asString().contains("x".repeat(256));
+	}
+
+	@Test
+	void shouldReplayLogAfterCheckpointOnStart() throws IOException {
+		writeBehind.stop();
+		Files.deleteIfExists(checkpoint());
+		// As left by a crash after acknowledged writes, with a torn last line
+		Files.writeString(log, """
+				1 {"type":"CREATED","id":900001,"name":"Replayed","price":5.0,"description":null}
+				2 {"type":"UPDATED","id":900001,"name":"Replayed twice","price":6.0,"description":null}
+				3 {"type":"CREATED","id":9000""");
+		writeBehind.start();
+
+		assertThat(productRepository.findById(900_001L)).hasValueSatisfying(product -> {
+			assertThat(product.getName()).isEqualTo("Replayed twice");
+			assertThat(product.getPrice()).isEqualTo(6.0);
+		});
+		assertThat(Files.size(log)).isZero();
+
+		// A synchronous write after the flush is not undone by entries the
+		// checkpoint covers, as after a crash before truncation
+		productRepository.findById(900_001L).ifPresent(product -> {
+			product.setName("Renamed");
+			productRepository.save(product);
+		});
+		writeBehind.stop();
+		Files.writeString(log, """
+				2 {"type":"UPDATED","id":900001,"name":"Replayed twice","price":6.0,"description":null}
+				""");
+		writeBehind.start();
+
+		assertThat(productRepository.findById(900_001L)).map(Product::getName).hasValue("Renamed");
+	}
+
+	@Test
+	void shouldNotAbortStartOnRejectedReplayEntry() throws IOException {
+		writeBehind.stop();
+		Files.deleteIfExists(checkpoint());
+		Files.writeString(log, """
+				1 {"type":"CREATED","id":700001,"name":"%s","price":5.0,"description":null}
+				2 {"type":"CREATED","id":700002,"name":"Survivor","price":5.0,"description":null}
+				""".formatted("x".repeat(256)));
+		writeBehind.start();
+
+		assertThat(productRepository.existsById(700_001L)).isFalse();
+		assertThat(productRepository.findById(700_002L)).map(Product::getName).hasValue("Survivor");
+		assertThat(Files.readAllLines(deadLetter)).anySatisfy(line -> assertThat(line).contains("700001"));
+	}
+
+	@Test
+	void shouldSetAsideReplayedCreateOfTakenId() throws IOException {
+		Product taken = productRepository.save(new Product("Original", 10.0, null));
+		writeBehind.stop();
+		Files.deleteIfExists(checkpoint());
+		Files.writeString(log, """
+				1 {"type":"CREATED","id":%d,"name":"Other","price":20.0,"description":null}
+				2 {"type":"CREATED","id":600001,"name":"Fresh","price":20.0,"description":null}
+				3 {"type":"CREATED","id":600001,"name":"Fresh","price":20.0,"description":null}
+				""".formatted(taken.getId()));
+		writeBehind.start();
+
+		assertThat(productRepository.findById(taken.getId())).map(Product::getName).hasValue("Original");
+		assertThat(productRepository.findById(600_001L)).map(Product::getVersion).hasValue(0L);
+		assertThat(Files.readAllLines(deadLetter)).anySatisfy(line -> assertThat(line).contains("\"Other\""));
+		// New ids start after the replayed ones
+		assertThat(productRepository.nextIdBlock()).isGreaterThanOrEqualTo(600_001L + 50);
+	}
+
+	private static Path checkpoint() {
+		return log.resolveSibling("product-writes.log.checkpoint");
+	}
+
+}
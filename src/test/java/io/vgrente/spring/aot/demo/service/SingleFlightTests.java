@@ -0,0 +1,83 @@
+package io.vgrente.spring.aot.demo.service;
+
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.atomic.AtomicInteger;
+
+import org.junit.jupiter.api.Test;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.assertThatIllegalStateException;
+
+class SingleFlightTests {
+
+	private final SingleFlight<String, Integer> flights = new SingleFlight<>();
+
+	@Test
+	void shouldShareOneLoadBetweenConcurrentCallers() throws Exception {
+		AtomicInteger loads = new AtomicInteger();
+		CountDownLatch release = new CountDownLatch(1);
+
+		try (ExecutorService executor = Executors.newVirtualThreadPerTaskExecutor()) {
+			Future<Integer> leader = executor.submit(() -> flights.load("laptop", () -> {
+				loads.incrementAndGet();
+				await(release);
+				return 42;
+			}));
+			while (loads.get() == 0) {
+				Thread.onSpinWait();
+			}
+			Future<Integer> follower = executor.submit(() -> flights.load("laptop", loads::incrementAndGet));
+			Thread.sleep(100);
+			release.countDown();
+
+			assertThat(leader.get()).isEqualTo(42);
+			assertThat(follower.get()).isEqualTo(42);
+		}
+		assertThat(loads).hasValue(1);
+	}
+
+	@Test
+	void shouldStartFreshLoadAfterForget() throws Exception {
+		CountDownLatch release = new CountDownLatch(1);
+
+		try (ExecutorService executor = Executors.newVirtualThreadPerTaskExecutor()) {
+			AtomicInteger started = new AtomicInteger();
+			Future<Integer> stale = executor.submit(() -> flights.load("laptop", () -> {
+				started.incrementAndGet();
+				await(release);
+				return 1;
+			}));
+			while (started.get() == 0) {
+				Thread.onSpinWait();
+			}
+			flights.forget("laptop");
+
+			assertThat(flights.load("laptop", () -> 2)).isEqualTo(2);
+			release.countDown();
+			assertThat(stale.get()).isEqualTo(1);
+		}
+	}
+
+	@Test
+	void shouldNotKeepResultsOrFailures() {
+		assertThatIllegalStateException().isThrownBy(() -> flights.load("laptop", () -> {
+			throw new IllegalStateException("database down");
+		}));
+
+		assertThat(flights.load("laptop", () -> 1)).isEqualTo(1);
+		assertThat(flights.load("laptop", () -> 2)).isEqualTo(2);
+	}
+
+	private static void await(CountDownLatch latch) {
+		try {
+			latch.await();
+		} catch (InterruptedException ex) {
+			Thread.currentThread().interrupt();
+			throw new IllegalStateException(ex);
+		}
+	}
+
+}
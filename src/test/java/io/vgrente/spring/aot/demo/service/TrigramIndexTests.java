@@ -0,0 +1,53 @@
+package io.vgrente.spring.aot.demo.service;
+
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+class TrigramIndexTests {
+
+	private TrigramIndex index;
+
+	@BeforeEach
+	void setUp() {
+		index = new TrigramIndex();
+		index.add(1, "Gaming Laptop");
+		index.add(2, "Laptop");
+		index.add(3, "Laptop Pro");
+		index.add(4, "Wireless Mouse");
+		index.add(5, "Ultralaptop");
+	}
+
+	@Test
+	void shouldRankExactThenPrefixThenWordStartThenSubstring() {
+		assertThat(index.search("LAPTOP", 10)).containsExactly(2L, 3L, 1L, 5L);
+	}
+
+	@Test
+	void shouldApplyLimit() {
+		assertThat(index.search("laptop", 2)).containsExactly(2L, 3L);
+	}
+
+	@Test
+	void shouldVerifyCandidatesAgainstFullTerm() {
+		// "lap" and "top" both occur in every laptop, but "laptopx" occurs nowhere
+		assertThat(index.search("laptopx", 10)).isEmpty();
+	}
+
+	@Test
+	void shouldMatchQueriesShorterThanATrigram() {
+		assertThat(index.search("mo", 10)).containsExactly(4L);
+	}
+
+	@Test
+	void shouldReindexOnUpdateAndForgetOnRemove() {
+		index.add(4, "Laptop Mouse");
+		index.remove(2);
+
+		assertThat(index.search("mouse", 10)).containsExactly(4L);
+		assertThat(index.search("laptop", 10)).containsExactly(3L, 4L, 1L, 5L);
+		assertThat(index.size()).isEqualTo(4);
+	}
+
+}